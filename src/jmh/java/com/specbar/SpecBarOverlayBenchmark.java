@@ -0,0 +1,167 @@
+package com.specbar;
+
+import net.runelite.api.Client;
+import net.runelite.api.MenuAction;
+import net.runelite.api.events.CanvasSizeChanged;
+import net.runelite.api.events.ClientTick;
+import net.runelite.api.events.MenuOptionClicked;
+import net.runelite.api.gameval.InterfaceID;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-frame cost of {@link SpecBarOverlay#render} for each visual state, client layout and UI scale,
+ * drawn into an opaque {@link BufferedImage} since {@code ./gradlew jmh} runs headless. The GC profiler's
+ * {@code gc.alloc.rate.norm} gives the bytes allocated per frame, and the {@code pixels} counter the time
+ * per pixel drawn (empty for {@code NONE}).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SpecBarOverlayBenchmark
+{
+    private static final Dimension FIXED_CANVAS = new Dimension(765, 503);
+    private static final Dimension RESIZABLE_CANVAS = new Dimension(1920, 1080);
+
+    @Param({"NONE", "IDLE", "HOVER", "CLICK"})
+    public String state;
+
+    /**
+     * FIXED and RESIZABLE draw at 1:1 into a canvas of that size. STRETCHED draws the fixed layout
+     * through a transform up to the resizable canvas size.
+     */
+    @Param({"FIXED", "RESIZABLE", "STRETCHED"})
+    public String mode;
+
+    @Param({"1.0", "1.5", "2.0"})
+    public double uiScale;
+
+    /**
+     * Kept to one value to hold the matrix size down; pass {@code -p transition=FADE_AND_PULSE} to check
+     * that animated frames cost the same and allocate nothing.
+     */
+    @Param({"NONE"})
+    public String transition;
+
+    /**
+     * Reported per frame alongside the primary result.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Fill
+    {
+        public long pixels;
+
+        @Setup(Level.Iteration)
+        public void reset()
+        {
+            pixels = 0;
+        }
+    }
+
+    private SpecBarStubs.ClientState clientState;
+    private SpecBarOverlay overlay;
+    private Graphics2D graphics;
+    private long pixelsPerFrame;
+
+    @Setup
+    public void setUp()
+    {
+        boolean idleBorder = state.equals("IDLE");
+        SpecBarConfig.Transition transitionStyle = SpecBarConfig.Transition.valueOf(transition);
+        SpecBarConfig config = new SpecBarConfig()
+        {
+            @Override
+            public boolean enableIdleBorder()
+            {
+                return idleBorder;
+            }
+
+            @Override
+            public Transition transition()
+            {
+                return transitionStyle;
+            }
+        };
+
+        // Resizable mode anchors the combat tab to the bottom right of the canvas
+        clientState = new SpecBarStubs.ClientState();
+        if (mode.equals("RESIZABLE"))
+        {
+            int dx = RESIZABLE_CANVAS.width - FIXED_CANVAS.width;
+            int dy = RESIZABLE_CANVAS.height - FIXED_CANVAS.height;
+            clientState.specBarBounds.translate(dx, dy);
+        }
+
+        Client client = SpecBarStubs.client(clientState, SpecBarStubs.player(clientState));
+        SpecBarPlugin plugin = SpecBarStubs.plugin(client, config);
+        overlay = SpecBarStubs.overlay(plugin, client);
+
+        // Let the plugin pick up the spec bar bounds, then place the cursor for the requested state
+        plugin.onCanvasSizeChanged(new CanvasSizeChanged());
+        plugin.onClientTick(new ClientTick());
+        if (state.equals("HOVER") || state.equals("CLICK"))
+        {
+            Rectangle bounds = clientState.specBarBounds;
+            plugin.onMouseMoved(bounds.x + bounds.width / 2, bounds.y + bounds.height / 2);
+        }
+        if (state.equals("CLICK"))
+        {
+            plugin.onMenuOptionClicked(new MenuOptionClicked(SpecBarStubs.menuEntry("Use", "Special Attack",
+                MenuAction.CC_OP, InterfaceID.CombatInterface.SP_ATTACKBAR)));
+        }
+
+        double scale = uiScale;
+        Dimension canvas = mode.equals("FIXED") ? FIXED_CANVAS : RESIZABLE_CANVAS;
+        if (mode.equals("STRETCHED"))
+        {
+            scale *= (double) RESIZABLE_CANVAS.width / FIXED_CANVAS.width;
+        }
+        int width = (int) Math.ceil(canvas.width * uiScale);
+        int height = (int) Math.ceil(canvas.height * uiScale);
+        graphics = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB).createGraphics();
+        graphics.scale(scale, scale);
+
+        if (!state.equals("NONE"))
+        {
+            Rectangle bounds = clientState.specBarBounds;
+            pixelsPerFrame = (long) Math.ceil(bounds.width * scale) * (long) Math.ceil(bounds.height * scale);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown()
+    {
+        graphics.dispose();
+    }
+
+    @Benchmark
+    public Dimension render(Fill fill)
+    {
+        fill.pixels += pixelsPerFrame;
+        // One client cycle per frame, so fades run out and pulses keep cycling through their ramps
+        clientState.gameCycle++;
+        return overlay.render(graphics);
+    }
+}
@@ -0,0 +1,145 @@
+package com.specbar;
+
+import net.runelite.api.ChatMessageType;
+import net.runelite.api.Client;
+import net.runelite.api.MenuAction;
+import net.runelite.api.Player;
+import net.runelite.api.events.AnimationChanged;
+import net.runelite.api.events.CanvasSizeChanged;
+import net.runelite.api.events.ChatMessage;
+import net.runelite.api.events.ClientTick;
+import net.runelite.api.events.MenuOptionClicked;
+import net.runelite.api.gameval.InterfaceID;
+import net.runelite.client.events.ConfigChanged;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-event cost of the plugin's event handlers. Run with {@code ./gradlew jmh}; the GC profiler
+ * reports the allocation rate next to ns/op. Stub calls go through dynamic proxies, so compare
+ * results against each other rather than reading them as absolute client cost.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SpecBarPluginBenchmark
+{
+    private static final int DRAGON_AXE_SPEC = 2876;
+    private static final SpecBarConfig.ColorPreset[] PRESETS = SpecBarConfig.ColorPreset.values();
+
+    private final SpecBarStubs.ClientState state = new SpecBarStubs.ClientState();
+
+    private SpecBarPlugin plugin;
+    private ClientTick clientTick;
+    private MenuOptionClicked walkClick;
+    private MenuOptionClicked specBarClick;
+    private AnimationChanged animationChanged;
+    private ChatMessage chatMessage;
+    private ConfigChanged presetChanged;
+    private SpecBarConfig.ColorPreset preset = SpecBarConfig.ColorPreset.CUSTOM;
+    private int presetIndex;
+    private int mouseStep;
+
+    @Setup
+    public void setUp()
+    {
+        Player localPlayer = SpecBarStubs.player(state);
+        Client client = SpecBarStubs.client(state, localPlayer);
+        plugin = SpecBarStubs.plugin(client, new SpecBarConfig()
+        {
+            @Override
+            public ColorPreset colorPreset()
+            {
+                return preset;
+            }
+
+            @Override
+            public boolean highlightOtherOrbs()
+            {
+                return true;
+            }
+        });
+        plugin.onCanvasSizeChanged(new CanvasSizeChanged());
+        plugin.onClientTick(new ClientTick());
+
+        clientTick = new ClientTick();
+        walkClick = new MenuOptionClicked(SpecBarStubs.menuEntry("Walk here", "", MenuAction.WALK, 0));
+        specBarClick = new MenuOptionClicked(SpecBarStubs.menuEntry("Use", "<col=00ff00>Special Attack</col>",
+            MenuAction.CC_OP, InterfaceID.CombatInterface.SP_ATTACKBAR));
+
+        animationChanged = new AnimationChanged();
+        animationChanged.setActor(localPlayer);
+        state.animation = DRAGON_AXE_SPEC;
+
+        chatMessage = new ChatMessage();
+        chatMessage.setType(ChatMessageType.GAMEMESSAGE);
+        chatMessage.setMessage("You don't have enough power left.");
+
+        presetChanged = new ConfigChanged();
+        presetChanged.setGroup("specbar");
+        presetChanged.setKey("colorPreset");
+    }
+
+    @Benchmark
+    public void onClientTick()
+    {
+        plugin.onClientTick(clientTick);
+    }
+
+    @Benchmark
+    public void onMouseMoved()
+    {
+        // Sweep across the spec bar, the orbs and empty canvas, so every hit-test path is taken
+        int step = mouseStep++;
+        plugin.onMouseMoved(500 + (step * 37) % 240, 80 + (step * 53) % 370);
+    }
+
+    @Benchmark
+    public void onMenuOptionClickedWalk()
+    {
+        plugin.onMenuOptionClicked(walkClick);
+    }
+
+    @Benchmark
+    public void onMenuOptionClickedSpecBar()
+    {
+        plugin.onMenuOptionClicked(specBarClick);
+    }
+
+    @Benchmark
+    public void onAnimationChanged()
+    {
+        // Re-arm the click state each time so the animation lookup is always reached
+        plugin.onMenuOptionClicked(specBarClick);
+        plugin.onAnimationChanged(animationChanged);
+    }
+
+    @Benchmark
+    public void onChatMessage()
+    {
+        plugin.onMenuOptionClicked(specBarClick);
+        plugin.onChatMessage(chatMessage);
+    }
+
+    @Benchmark
+    public SpecBarPalette onConfigChangedPreset()
+    {
+        // Cycle through every preset, including CUSTOM, as the config panel dropdown would
+        preset = PRESETS[presetIndex++ % PRESETS.length];
+        plugin.onConfigChanged(presetChanged);
+        return plugin.getPalette();
+    }
+}
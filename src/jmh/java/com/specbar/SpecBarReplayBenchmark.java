@@ -0,0 +1,125 @@
+package com.specbar;
+
+import net.runelite.api.MenuAction;
+import net.runelite.api.gameval.InterfaceID;
+import net.runelite.api.gameval.VarPlayerID;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.Rectangle;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replays a session through a fresh plugin per invocation. Uses a synthetic one-minute session unless
+ * {@code session} points at a file recorded in game, e.g.
+ * {@code ./gradlew jmh -Pjmh.include=SpecBarReplay -Pjmh.args="-p session=/path/to/session.sbs"}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SpecBarReplayBenchmark
+{
+    // 100 game ticks of 30 client ticks each
+    private static final int GAME_TICKS = 100;
+    private static final int CLIENT_TICKS_PER_GAME_TICK = 30;
+
+    @Param({""})
+    public String session;
+
+    private byte[] bytes;
+
+    @Setup
+    public void setUp() throws IOException
+    {
+        bytes = session.isEmpty() ? syntheticSession() : Files.readAllBytes(Paths.get(session));
+    }
+
+    /**
+     * Reported as whole sessions per second.
+     */
+    @Benchmark
+    public long replay() throws IOException
+    {
+        SpecBarSessionReplayer replayer = new SpecBarSessionReplayer(new SpecBarConfig() {});
+        return replayer.replay(new ByteArrayInputStream(bytes));
+    }
+
+    /**
+     * The decoding share of {@link #replay()}: the same session read without dispatching to the plugin.
+     */
+    @Benchmark
+    public int decode() throws IOException
+    {
+        int[] events = new int[1];
+        SpecBarSession.read(new ByteArrayInputStream(bytes), new SpecBarSession.Visitor()
+        {
+            @Override public void at(long nanos, int tick) { events[0]++; }
+            @Override public void clientTick() { }
+            @Override public void gameTick() { }
+            @Override public void menuClick(int menuActionId, int param1) { }
+            @Override public void varp(int varpId, int value) { }
+            @Override public void animation(int animationId) { }
+            @Override public void graphic(int graphicId) { }
+            @Override public void chat(int chatMessageType, String message) { }
+            @Override public void mouse(int x, int y) { }
+            @Override public void layout(int x, int y, int width, int height) { }
+            @Override public void equipment(int weaponId, int ringId) { }
+            @Override public void mousePress(int x, int y) { }
+        });
+        return events[0];
+    }
+
+    private static byte[] syntheticSession() throws IOException
+    {
+        long[] nanos = new long[1];
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Rectangle bar = SpecBarStubs.SPEC_BAR_BOUNDS;
+        int energy = 1000;
+
+        try (SpecBarSessionRecorder recorder = new SpecBarSessionRecorder(out, () -> nanos[0]))
+        {
+            recorder.varp(0, VarPlayerID.SA_ENERGY, energy);
+            recorder.layout(0, bar.x, bar.y, bar.width, bar.height);
+
+            for (int tick = 0; tick < GAME_TICKS; tick++)
+            {
+                for (int frame = 0; frame < CLIENT_TICKS_PER_GAME_TICK; frame++)
+                {
+                    nanos[0] += 20_000_000L;
+                    recorder.clientTick(tick);
+                    // Sweep the mouse in and out of the bar
+                    recorder.mouse(tick, bar.x - 50 + (tick * 7 + frame * 3) % 250, bar.y + bar.height / 2);
+                }
+
+                if (tick % 10 == 0)
+                {
+                    recorder.menuClick(tick, MenuAction.CC_OP.getId(), InterfaceID.CombatInterface.SP_ATTACKBAR);
+                }
+                else if (tick % 10 == 1 && energy >= 250)
+                {
+                    energy -= 250;
+                    recorder.varp(tick, VarPlayerID.SA_ENERGY, energy);
+                }
+                recorder.gameTick(tick + 1);
+            }
+        }
+        return out.toByteArray();
+    }
+}
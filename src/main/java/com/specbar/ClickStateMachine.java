@@ -0,0 +1,140 @@
+package com.specbar;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Table-driven lifecycle of a spec bar click, with windows measured in game ticks.
+ * <pre>
+ * IDLE &lt;-&gt; HOVER -&gt; PENDING -&gt; CONFIRMED / FAILED / EXPIRED -&gt; IDLE or HOVER
+ *                     PENDING -&gt; IDLE or HOVER when clicked again or the spec is turned off
+ * </pre>
+ * The state, whether the cursor is over the bar and the tick the state was entered are packed into a
+ * single atomic long, so the mouse listener and the client thread can both fire events without locking.
+ */
+final class ClickStateMachine
+{
+    static final int IDLE = 0;
+    static final int HOVER = 1;
+    static final int PENDING = 2;   // Clicked, waiting for the server to use or reject the spec
+    static final int CONFIRMED = 3; // Spec used; hover stays suppressed until the state settles
+    static final int FAILED = 4;    // Spec rejected (not enough energy)
+    static final int EXPIRED = 5;   // Nothing confirmed the click within the detection window
+
+    static final int EVENT_HOVER_ENTER = 0;
+    static final int EVENT_HOVER_EXIT = 1;
+    static final int EVENT_CLICK = 2;
+    static final int EVENT_CONFIRM = 3;
+    static final int EVENT_FAIL = 4;
+    static final int EVENT_TIMEOUT = 5;
+    static final int EVENT_SETTLE = 6;
+    static final int EVENT_CANCEL = 7; // The spec was turned off without firing
+
+    // 3 seconds, the old SPEC_DETECTION_WINDOW_MS
+    static final int DETECTION_WINDOW_TICKS = 5;
+    // Hover is suppressed for the rest of the tick after a click resolves
+    static final int SETTLE_TICKS = 1;
+
+    // TRANSITIONS[state][event]; IDLE and HOVER are resolved from the hover bit after the lookup
+    private static final int[][] TRANSITIONS = {
+        //             ENTER      EXIT       CLICK      CONFIRM    FAIL       TIMEOUT    SETTLE     CANCEL
+        /* IDLE      */ {IDLE,      IDLE,      PENDING,   IDLE,      IDLE,      IDLE,      IDLE,      IDLE},
+        /* HOVER     */ {IDLE,      IDLE,      PENDING,   IDLE,      IDLE,      IDLE,      IDLE,      IDLE},
+        /* PENDING   */ {PENDING,   PENDING,   IDLE,      CONFIRMED, FAILED,    EXPIRED,   PENDING,   IDLE},
+        /* CONFIRMED */ {CONFIRMED, CONFIRMED, PENDING,   CONFIRMED, CONFIRMED, CONFIRMED, IDLE,      CONFIRMED},
+        /* FAILED    */ {FAILED,    FAILED,    PENDING,   FAILED,    FAILED,    FAILED,    IDLE,      FAILED},
+        /* EXPIRED   */ {EXPIRED,   EXPIRED,   PENDING,   EXPIRED,   EXPIRED,   EXPIRED,   IDLE,      EXPIRED},
+    };
+
+    private static final long STATE_MASK = 0x7;
+    private static final long HOVER_BIT = 0x8;
+
+    private final AtomicLong packed = new AtomicLong(pack(IDLE, false, 0));
+
+    /**
+     * Applies {@code event} at game tick {@code tick}.
+     *
+     * @return the state before the event
+     */
+    int fire(int event, int tick)
+    {
+        for (;;)
+        {
+            long current = packed.get();
+            int state = stateOf(current);
+            boolean hovering = (current & HOVER_BIT) != 0;
+            if (event == EVENT_HOVER_ENTER)
+            {
+                hovering = true;
+            }
+            else if (event == EVENT_HOVER_EXIT)
+            {
+                hovering = false;
+            }
+
+            int next = TRANSITIONS[state][event];
+            if (next == IDLE && hovering)
+            {
+                next = HOVER;
+            }
+
+            // Only a change of state restarts its window; hover changes keep the original tick
+            int stateTick = next != state ? tick : tickOf(current);
+            long updated = pack(next, hovering, stateTick);
+            if (updated == current || packed.compareAndSet(current, updated))
+            {
+                return state;
+            }
+        }
+    }
+
+    int getState()
+    {
+        return stateOf(packed.get());
+    }
+
+    /**
+     * @return the tick the current state was entered on
+     */
+    int getStateTick()
+    {
+        return tickOf(packed.get());
+    }
+
+    /**
+     * @return true if a pending click has gone unconfirmed for the whole detection window
+     */
+    boolean isTimedOut(int tick)
+    {
+        long current = packed.get();
+        return stateOf(current) == PENDING && tick - tickOf(current) >= DETECTION_WINDOW_TICKS;
+    }
+
+    /**
+     * @return true if a resolved click has been shown long enough to return to idle or hover
+     */
+    boolean isSettled(int tick)
+    {
+        long current = packed.get();
+        return stateOf(current) >= CONFIRMED && tick - tickOf(current) >= SETTLE_TICKS;
+    }
+
+    void reset()
+    {
+        packed.set(pack(IDLE, false, 0));
+    }
+
+    private static long pack(int state, boolean hovering, int tick)
+    {
+        return ((long) tick << 32) | (hovering ? HOVER_BIT : 0) | state;
+    }
+
+    private static int stateOf(long packed)
+    {
+        return (int) (packed & STATE_MASK);
+    }
+
+    private static int tickOf(long packed)
+    {
+        return (int) (packed >>> 32);
+    }
+}
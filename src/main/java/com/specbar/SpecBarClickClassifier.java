@@ -0,0 +1,51 @@
+package com.specbar;
+
+import net.runelite.api.MenuAction;
+import net.runelite.api.gameval.InterfaceID;
+
+/**
+ * Classifies menu clicks by menu action and target component, without looking at option or target text.
+ */
+final class SpecBarClickClassifier
+{
+    static final int CLICK_OTHER = 0;
+    static final int CLICK_SPEC_BAR = 1; // Combat tab special attack bar
+    static final int CLICK_SPEC_ORB = 2; // Minimap special attack orb
+    static final int CLICK_PRAYER_ORB = 3; // Minimap prayer orb (quick prayers)
+    static final int CLICK_RUN_ORB = 4; // Minimap run orb
+
+    private SpecBarClickClassifier()
+    {
+    }
+
+    /**
+     * @param action   the clicked entry's menu action
+     * @param widgetId the clicked entry's param1, which is the packed component id for widget ops
+     */
+    static int classify(MenuAction action, int widgetId)
+    {
+        // The spec and orb buttons are plain interface ops; anything else (walk, examine, targeting) is not a button click
+        if (action != MenuAction.CC_OP && action != MenuAction.CC_OP_LOW_PRIORITY)
+        {
+            return CLICK_OTHER;
+        }
+
+        if (widgetId == InterfaceID.CombatInterface.SP_ATTACKBAR)
+        {
+            return CLICK_SPEC_BAR;
+        }
+        if (widgetId == InterfaceID.Orbs.SPECBUTTON)
+        {
+            return CLICK_SPEC_ORB;
+        }
+        if (widgetId == InterfaceID.Orbs.PRAYERBUTTON)
+        {
+            return CLICK_PRAYER_ORB;
+        }
+        if (widgetId == InterfaceID.Orbs.RUNBUTTON)
+        {
+            return CLICK_RUN_ORB;
+        }
+        return CLICK_OTHER;
+    }
+}
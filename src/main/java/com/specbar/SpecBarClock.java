@@ -0,0 +1,12 @@
+package com.specbar;
+
+/**
+ * Time source for latency measurements and session recordings. Replays substitute a
+ * deterministic clock driven by the recorded timestamps.
+ */
+public interface SpecBarClock
+{
+    SpecBarClock SYSTEM = System::nanoTime;
+
+    long nanoTime();
+}
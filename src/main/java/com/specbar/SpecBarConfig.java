@@ -5,6 +5,8 @@ import net.runelite.client.config.Config;
 import net.runelite.client.config.ConfigGroup;
 import net.runelite.client.config.ConfigItem;
 import net.runelite.client.config.ConfigSection;
+import net.runelite.client.config.Range;
+import net.runelite.client.config.Units;
 
 import java.awt.Color;
 
@@ -39,6 +41,14 @@ public interface SpecBarConfig extends Config
     )
     String clickColorsSection = "clickColors";
 
+    @ConfigSection(
+        name = "Orb Colors",
+        description = "Separate hover and click colors for the minimap orbs",
+        position = 3,
+        closedByDefault = true
+    )
+    String orbColorsSection = "orbColors";
+
     @ConfigSection(
         name = "Idle State",
         description = "Persistent border when not hovering or clicking",
@@ -46,10 +56,25 @@ public interface SpecBarConfig extends Config
     )
     String idleStateSection = "idleState";
 
+    @ConfigSection(
+        name = "Spec Regen",
+        description = "Estimate when special attack energy reaches a threshold",
+        position = 5
+    )
+    String specRegenSection = "specRegen";
+
+    @ConfigSection(
+        name = "Debug",
+        description = "Diagnostics for measuring how quickly clicks are shown and confirmed",
+        position = 6,
+        closedByDefault = true
+    )
+    String debugSection = "debug";
+
     @ConfigItem(
         keyName = "colorPreset",
         name = "Color Preset",
-        description = "Choose from pre-configured color themes for all states",
+        description = "Choose from pre-configured color themes for all states. Custom uses the colors below, which presets never overwrite",
         section = colorPresetsSection,
         position = 0
     )
@@ -106,6 +131,83 @@ public interface SpecBarConfig extends Config
         return false;
     }
 
+    @ConfigItem(
+        keyName = "highlightSpecOrb",
+        name = "Highlight Spec Orb",
+        description = "Show the hover and click effects on the minimap special attack orb too",
+        section = visualEffectsSection,
+        position = 4
+    )
+    default boolean highlightSpecOrb()
+    {
+        return true;
+    }
+
+    @ConfigItem(
+        keyName = "highlightOtherOrbs",
+        name = "Highlight Prayer/Run Orbs",
+        description = "Show the hover and click effects on the minimap prayer and run orbs",
+        section = visualEffectsSection,
+        position = 5
+    )
+    default boolean highlightOtherOrbs()
+    {
+        return false;
+    }
+
+    @ConfigItem(
+        keyName = "instantClickFeedback",
+        name = "Instant Click Feedback",
+        description = "Show the click effect as soon as the mouse button goes down on the spec bar or orb, instead of once the client handles the click. Undone if the click does something else",
+        section = visualEffectsSection,
+        position = 6
+    )
+    default boolean instantClickFeedback()
+    {
+        return false;
+    }
+
+    @ConfigItem(
+        keyName = "transition",
+        name = "Transition",
+        description = "Fade between the idle, hover and click states instead of switching instantly, optionally pulsing while a spec click is pending",
+        section = visualEffectsSection,
+        position = 7
+    )
+    default Transition transition()
+    {
+        return Transition.NONE;
+    }
+
+    @Range(
+        min = 20,
+        max = 1000
+    )
+    @Units(Units.MILLISECONDS)
+    @ConfigItem(
+        keyName = "fadeDuration",
+        name = "Fade Duration",
+        description = "How long a fade between states takes",
+        section = visualEffectsSection,
+        position = 8
+    )
+    default int fadeDuration()
+    {
+        return 150;
+    }
+
+    @ConfigItem(
+        keyName = "insufficientEnergyEffect",
+        name = "Insufficient Energy Effect",
+        description = "Show a spec click the wielded weapon does not have the energy for right away, instead of waiting for the server to say so",
+        section = visualEffectsSection,
+        position = 9
+    )
+    default boolean insufficientEnergyEffect()
+    {
+        return true;
+    }
+
     // Hover State Settings
     @Alpha
     @ConfigItem(
@@ -160,6 +262,97 @@ public interface SpecBarConfig extends Config
         return new Color(255, 69, 0, 220); // Red-orange with high opacity for visibility
     }
 
+    @Alpha
+    @ConfigItem(
+        keyName = "insufficientEnergyAreaColor",
+        name = "Insufficient Energy Area Color",
+        description = "Color and opacity for the area fill when a click does not have the spec energy",
+        section = clickColorsSection,
+        position = 2
+    )
+    default Color insufficientEnergyAreaColor()
+    {
+        return new Color(90, 90, 90, 120); // Gray, like an unavailable button
+    }
+
+    @Alpha
+    @ConfigItem(
+        keyName = "insufficientEnergyBorderColor",
+        name = "Insufficient Energy Border Color",
+        description = "Color and opacity for the border when a click does not have the spec energy",
+        section = clickColorsSection,
+        position = 3
+    )
+    default Color insufficientEnergyBorderColor()
+    {
+        return new Color(200, 0, 0, 220); // Red
+    }
+
+    // Orb Color Settings
+    @ConfigItem(
+        keyName = "customOrbColors",
+        name = "Separate Orb Colors",
+        description = "Use the colors below for the spec, prayer and run orbs instead of the spec bar's hover and click colors",
+        section = orbColorsSection,
+        position = 0
+    )
+    default boolean customOrbColors()
+    {
+        return false;
+    }
+
+    @Alpha
+    @ConfigItem(
+        keyName = "orbHoverAreaColor",
+        name = "Orb Hover Area Color",
+        description = "Color and opacity for the hover area fill of the minimap orbs",
+        section = orbColorsSection,
+        position = 1
+    )
+    default Color orbHoverAreaColor()
+    {
+        return new Color(255, 215, 0, 60); // Gold with transparency
+    }
+
+    @Alpha
+    @ConfigItem(
+        keyName = "orbHoverBorderColor",
+        name = "Orb Hover Border Color",
+        description = "Color and opacity for the border when hovering over a minimap orb",
+        section = orbColorsSection,
+        position = 2
+    )
+    default Color orbHoverBorderColor()
+    {
+        return new Color(218, 165, 32, 180); // Goldenrod
+    }
+
+    @Alpha
+    @ConfigItem(
+        keyName = "orbClickAreaColor",
+        name = "Orb Click Area Color",
+        description = "Color and opacity for the area fill when clicking a minimap orb",
+        section = orbColorsSection,
+        position = 3
+    )
+    default Color orbClickAreaColor()
+    {
+        return new Color(50, 205, 50, 100); // Lime green with transparency
+    }
+
+    @Alpha
+    @ConfigItem(
+        keyName = "orbClickBorderColor",
+        name = "Orb Click Border Color",
+        description = "Color and opacity for the border when clicking a minimap orb",
+        section = orbColorsSection,
+        position = 4
+    )
+    default Color orbClickBorderColor()
+    {
+        return new Color(34, 139, 34, 220); // Forest green
+    }
+
     // Idle State Settings
     @Alpha
     @ConfigItem(
@@ -187,7 +380,128 @@ public interface SpecBarConfig extends Config
         return new Color(128, 128, 128, 100); // Light gray with low opacity for subtle indication
     }
 
+    // Spec Regen Settings
+    @ConfigItem(
+        keyName = "regenDisplay",
+        name = "Show Regen ETA",
+        description = "Show the time until spec energy reaches the threshold as text or a bar under the spec bar",
+        section = specRegenSection,
+        position = 0
+    )
+    default RegenDisplay regenDisplay()
+    {
+        return RegenDisplay.OFF;
+    }
 
+    @Range(
+        min = 1,
+        max = 100
+    )
+    @Units(Units.PERCENT)
+    @ConfigItem(
+        keyName = "regenThreshold",
+        name = "Regen Threshold",
+        description = "Spec energy to count down to, e.g. 50 for a claw spec or 100 for two DDS specs",
+        section = specRegenSection,
+        position = 1
+    )
+    default int regenThreshold()
+    {
+        return 50;
+    }
+
+    // Debug Settings
+    @ConfigItem(
+        keyName = "showLatencyOverlay",
+        name = "Show Latency Overlay",
+        description = "Show click-to-frame, click-to-confirm and click-to-timeout latency percentiles",
+        section = debugSection,
+        position = 0
+    )
+    default boolean showLatencyOverlay()
+    {
+        return false;
+    }
+
+    @ConfigItem(
+        keyName = "recordSessions",
+        name = "Record Sessions",
+        description = "Record the events this plugin sees to .runelite/spec-bar-utilities/sessions for offline replay",
+        section = debugSection,
+        position = 1
+    )
+    default boolean recordSessions()
+    {
+        return false;
+    }
+
+    @Range(
+        max = 5000
+    )
+    @Units("us")
+    @ConfigItem(
+        keyName = "frameBudget",
+        name = "Frame Budget",
+        description = "Time per frame the plugin may spend before it drops fades and pulses, then the idle border, then rechecks the hover less often. 0 disables the check",
+        section = debugSection,
+        position = 2
+    )
+    default int frameBudget()
+    {
+        return 0;
+    }
+
+    @ConfigItem(
+        keyName = "flightRecorder",
+        name = "Flight Recorder",
+        description = "Keep a record of recent spec events in .runelite/spec-bar-utilities for ::specdump, to attach to a report of a stuck click",
+        section = debugSection,
+        position = 3
+    )
+    default boolean flightRecorder()
+    {
+        return false;
+    }
+
+    enum Transition
+    {
+        NONE("None"),
+        FADE("Fade"),
+        FADE_AND_PULSE("Fade and pulse");
+
+        private final String displayName;
+
+        Transition(String displayName)
+        {
+            this.displayName = displayName;
+        }
+
+        @Override
+        public String toString()
+        {
+            return displayName;
+        }
+    }
+
+    enum RegenDisplay
+    {
+        OFF("Off"),
+        TEXT("Text"),
+        BAR("Bar");
+
+        private final String displayName;
+
+        RegenDisplay(String displayName)
+        {
+            this.displayName = displayName;
+        }
+
+        @Override
+        public String toString()
+        {
+            return displayName;
+        }
+    }
 
     enum ColorPreset
     {
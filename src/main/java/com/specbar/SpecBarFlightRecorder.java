@@ -0,0 +1,398 @@
+package com.specbar;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Opt-in record of the spec events behind the click state, for diagnosing a click that got stuck.
+ * The client thread appends fixed-size primitive records to a preallocated ring without allocating or
+ * locking; a background thread copies new records to a memory-mapped file in batches, so the history
+ * survives the client being closed or crashing.
+ */
+@Slf4j
+@Singleton
+class SpecBarFlightRecorder
+{
+    static final int MENU_CLICK = 0;   // id: SpecBarClickClassifier click
+    static final int ANIMATION = 1;    // id: local player animation
+    static final int GRAPHIC = 2;      // id: local player graphic
+    static final int SPEC_FAILED = 3;  // id: 0 for the "not enough power" message, PREDICTED from the weapon's cost
+    static final int ENERGY = 4;       // id: previous spec energy
+    static final int CLICK_STATE = 5;  // id: event << 16 | previous state << 8 | new state
+    static final int ROLLBACK = 6;     // id: target of a provisional click that was undone
+
+    static final int PREDICTED = 1;
+
+    private static final String[] TYPE_NAMES = {"menu click", "animation", "graphic", "spec failed", "energy", "click state", "rollback"};
+    private static final String[] STATE_NAMES = {"idle", "hover", "pending", "confirmed", "failed", "expired"};
+    private static final String[] EVENT_NAMES = {"hover enter", "hover exit", "click", "confirm", "fail", "timeout", "settle", "cancel"};
+
+    // About ten minutes of busy PvP in memory
+    static final int CAPACITY = 1 << 12;
+    private static final int MASK = CAPACITY - 1;
+
+    // File layout: header, then a ring of FILE_RECORDS records
+    static final int MAGIC = 0x53424652; // "SBFR"
+    static final int VERSION = 1;
+    static final int FILE_RECORDS = 1 << 16;
+    static final int RECORD_SIZE = 4 + 4 + 8 + 4 + 4;
+    static final int HEADER_SIZE = 4 + 4 + 4 + 4 + 8 + 8 + 8;
+    static final int WRITTEN_OFFSET = 16;
+
+    private static final long FLUSH_INTERVAL_MILLIS = 1000;
+
+    private final SpecBarClock clock;
+
+    // Ring of records, one array per field; written only by the client thread
+    private final int[] types = new int[CAPACITY];
+    private final int[] ticks = new int[CAPACITY];
+    private final long[] nanos = new long[CAPACITY];
+    private final int[] ids = new int[CAPACITY];
+    private final int[] energies = new int[CAPACITY];
+    private long written = 0; // Client thread only
+    // Records visible to the flush thread; lazily set after each record is complete
+    private final AtomicLong published = new AtomicLong();
+
+    // Flush thread state; batches are copied here first so records overwritten mid-copy can be dropped
+    private final int[] batchTypes = new int[CAPACITY];
+    private final int[] batchTicks = new int[CAPACITY];
+    private final long[] batchNanos = new long[CAPACITY];
+    private final int[] batchIds = new int[CAPACITY];
+    private final int[] batchEnergies = new int[CAPACITY];
+    private long flushed = 0;
+    private long dropped = 0;
+
+    private ScheduledExecutorService executor;
+    private RandomAccessFile file;
+    private FileChannel channel;
+    private MappedByteBuffer mapped;
+    private long fileWritten;
+
+    @Inject
+    SpecBarFlightRecorder(SpecBarClock clock)
+    {
+        this.clock = clock;
+    }
+
+    /**
+     * Appends a record. Client thread only; never allocates.
+     */
+    void record(int type, int tick, int id, int energy)
+    {
+        long index = written;
+        int slot = (int) (index & MASK);
+        types[slot] = type;
+        ticks[slot] = tick;
+        nanos[slot] = clock.nanoTime();
+        ids[slot] = id;
+        energies[slot] = energy;
+        written = index + 1;
+        published.lazySet(index + 1);
+    }
+
+    /**
+     * Maps {@code target} and starts flushing to it in the background. Continues where an existing file
+     * left off, so the file keeps the history of earlier sessions.
+     */
+    synchronized void start(File target)
+    {
+        if (executor != null)
+        {
+            return;
+        }
+
+        try
+        {
+            File dir = target.getParentFile();
+            if (dir != null && !dir.isDirectory() && !dir.mkdirs())
+            {
+                throw new IOException("Unable to create " + dir);
+            }
+
+            file = new RandomAccessFile(target, "rw");
+            channel = file.getChannel();
+            mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) FILE_RECORDS * RECORD_SIZE);
+            boolean compatible = mapped.getInt(0) == MAGIC && mapped.getInt(4) == VERSION
+                && mapped.getInt(8) == FILE_RECORDS && mapped.getInt(12) == RECORD_SIZE;
+            fileWritten = compatible ? mapped.getLong(WRITTEN_OFFSET) : 0;
+            mapped.putInt(0, MAGIC);
+            mapped.putInt(4, VERSION);
+            mapped.putInt(8, FILE_RECORDS);
+            mapped.putInt(12, RECORD_SIZE);
+            mapped.putLong(WRITTEN_OFFSET, fileWritten);
+            // Wall clock of this session's nanoTime origin, to turn record times into dates
+            mapped.putLong(24, System.currentTimeMillis());
+            mapped.putLong(32, clock.nanoTime());
+        }
+        catch (IOException e)
+        {
+            log.warn("Unable to open spec bar flight recorder file {}", target, e);
+            closeFile();
+        }
+
+        executor = Executors.newSingleThreadScheduledExecutor(runnable ->
+        {
+            Thread thread = new Thread(runnable, "spec-bar-flight-recorder");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::flush, FLUSH_INTERVAL_MILLIS, FLUSH_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Flushes what is left and releases the file.
+     */
+    void stop()
+    {
+        ScheduledExecutorService stopping;
+        synchronized (this)
+        {
+            stopping = executor;
+            executor = null;
+        }
+        if (stopping == null)
+        {
+            return;
+        }
+
+        // Outside the lock, which a running flush or dump needs to finish
+        stopping.shutdown();
+        try
+        {
+            if (!stopping.awaitTermination(1, TimeUnit.SECONDS))
+            {
+                log.warn("Spec bar flight recorder did not finish flushing");
+            }
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+
+        synchronized (this)
+        {
+            flush();
+            closeFile();
+        }
+    }
+
+    /**
+     * Copies records published since the last flush into the mapped file. Runs on the flush thread.
+     */
+    synchronized void flush()
+    {
+        long end = published.get();
+        long start = Math.max(flushed, end - CAPACITY);
+        dropped += start - flushed;
+        int count = (int) (end - start);
+        for (int i = 0; i < count; i++)
+        {
+            int slot = (int) ((start + i) & MASK);
+            batchTypes[i] = types[slot];
+            batchTicks[i] = ticks[slot];
+            batchNanos[i] = nanos[slot];
+            batchIds[i] = ids[slot];
+            batchEnergies[i] = energies[slot];
+        }
+
+        // The client thread may have lapped the ring while the batch was copied, and may be midway through
+        // the next record; copies of those slots are torn
+        long overwritten = published.get() + 1 - CAPACITY;
+        int first = (int) Math.max(0, Math.min(count, overwritten - start));
+        dropped += first;
+        flushed = end;
+
+        if (mapped == null)
+        {
+            return;
+        }
+
+        for (int i = first; i < count; i++)
+        {
+            int position = HEADER_SIZE + (int) (fileWritten++ % FILE_RECORDS) * RECORD_SIZE;
+            mapped.putInt(position, batchTypes[i]);
+            mapped.putInt(position + 4, batchTicks[i]);
+            mapped.putLong(position + 8, batchNanos[i]);
+            mapped.putInt(position + 16, batchIds[i]);
+            mapped.putInt(position + 20, batchEnergies[i]);
+        }
+        // Count last, so a reader never sees records that are not there yet
+        mapped.putLong(WRITTEN_OFFSET, fileWritten);
+    }
+
+    /**
+     * Describes the records of the last {@code windowNanos}, oldest first. Client thread only.
+     */
+    List<String> describe(long windowNanos)
+    {
+        return snapshot(windowNanos).describe();
+    }
+
+    /**
+     * Writes the records of the last {@code seconds} to {@code target} on the flush thread, then reports
+     * the outcome to {@code done}. Called on the client thread, which only copies the records; they are
+     * formatted along with the write.
+     */
+    synchronized void dump(int seconds, File target, Consumer<String> done)
+    {
+        Snapshot snapshot = snapshot(TimeUnit.SECONDS.toNanos(seconds));
+        Runnable write = () ->
+        {
+            try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(target.toPath(), StandardCharsets.UTF_8)))
+            {
+                List<String> lines = snapshot.describe();
+                lines.forEach(writer::println);
+                done.accept("Wrote " + lines.size() + " spec events from the last " + seconds + "s to " + target);
+            }
+            catch (IOException e)
+            {
+                log.warn("Unable to write spec bar flight recorder dump {}", target, e);
+                done.accept("Unable to write the spec event dump: " + e.getMessage());
+            }
+        };
+
+        if (executor != null)
+        {
+            executor.execute(write);
+        }
+        else
+        {
+            write.run();
+        }
+    }
+
+    /**
+     * Records that never reached the file because the ring was lapped between flushes.
+     */
+    synchronized long getDropped()
+    {
+        return dropped;
+    }
+
+    /**
+     * Copies the records of the last {@code windowNanos}, oldest first. Client thread only.
+     */
+    private Snapshot snapshot(long windowNanos)
+    {
+        long now = clock.nanoTime();
+        long end = written;
+        long start = Math.max(0, end - CAPACITY);
+        while (start < end && now - nanos[(int) (start & MASK)] > windowNanos)
+        {
+            start++;
+        }
+
+        Snapshot snapshot = new Snapshot(now, (int) (end - start));
+        for (int i = 0; i < snapshot.count; i++)
+        {
+            int slot = (int) ((start + i) & MASK);
+            snapshot.types[i] = types[slot];
+            snapshot.ticks[i] = ticks[slot];
+            snapshot.nanos[i] = nanos[slot];
+            snapshot.ids[i] = ids[slot];
+            snapshot.energies[i] = energies[slot];
+        }
+        return snapshot;
+    }
+
+    private static String describeId(int type, int id)
+    {
+        switch (type)
+        {
+            case CLICK_STATE:
+                return EVENT_NAMES[id >>> 16] + ": " + STATE_NAMES[id >>> 8 & 0xFF] + " -> " + STATE_NAMES[id & 0xFF];
+            case SPEC_FAILED:
+                return id == PREDICTED ? "predicted" : "";
+            default:
+                return Integer.toString(id);
+        }
+    }
+
+    /**
+     * A copy of part of the ring, safe to format on another thread.
+     */
+    private static final class Snapshot
+    {
+        private final long now;
+        private final int count;
+        private final int[] types;
+        private final int[] ticks;
+        private final long[] nanos;
+        private final int[] ids;
+        private final int[] energies;
+
+        private Snapshot(long now, int count)
+        {
+            this.now = now;
+            this.count = count;
+            types = new int[count];
+            ticks = new int[count];
+            nanos = new long[count];
+            ids = new int[count];
+            energies = new int[count];
+        }
+
+        private List<String> describe()
+        {
+            List<String> lines = new ArrayList<>(count);
+            for (int i = 0; i < count; i++)
+            {
+                lines.add(String.format("%9.3fs tick %d %-11s %-30s energy %d%%",
+                    (nanos[i] - now) / 1e9, ticks[i], TYPE_NAMES[types[i]], describeId(types[i], ids[i]),
+                    energies[i] / 10));
+            }
+            return lines;
+        }
+    }
+
+    /**
+     * Writes the mapping back and lets go of it, the channel and the file. The mapping itself is unmapped
+     * once it is collected; nothing may touch it after this.
+     */
+    private void closeFile()
+    {
+        if (mapped != null)
+        {
+            mapped.force();
+            mapped = null;
+        }
+        try
+        {
+            if (channel != null)
+            {
+                channel.close();
+            }
+            if (file != null)
+            {
+                file.close();
+            }
+        }
+        catch (IOException e)
+        {
+            log.warn("Unable to close spec bar flight recorder file", e);
+        }
+        finally
+        {
+            channel = null;
+            file = null;
+            fileWritten = 0;
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package com.specbar;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.Arrays;
+
+/**
+ * Samples how long the plugin's hot handlers take and steps rendering down a level at a time while
+ * their cost per frame stays over the configured budget, and back up once it is well under.
+ * Client thread only, apart from {@link #getLevel()}.
+ */
+@Slf4j
+@Singleton
+class SpecBarFrameBudget
+{
+    static final int CLIENT_TICK = 0;
+    static final int MENU_OPTION_CLICKED = 1;
+    static final int ANIMATION_CHANGED = 2;
+    static final int OVERLAY_RENDER = 3;
+    static final int HANDLER_COUNT = 4;
+
+    // Degrade levels; each one keeps the reductions of the levels below it
+    static final int LEVEL_FULL = 0;
+    static final int LEVEL_NO_TRANSITIONS = 1;
+    static final int LEVEL_NO_IDLE_BORDER = 2;
+    static final int LEVEL_SLOW_HOVER = 3;
+
+    private static final String[] LEVEL_NAMES = {"full", "no transitions", "no idle border", "slow hover"};
+
+    static final long NOT_SAMPLED = -1;
+
+    // Time one call in 8 per handler; a nanoTime pair costs about as much as a cheap handler
+    static final int SAMPLE_INTERVAL = 8;
+    // Rolling window of samples per handler
+    static final int WINDOW = 32;
+    // Client ticks (frames) between budget checks, about a second
+    static final int EVALUATE_FRAMES = 50;
+
+    private static final String[] HANDLER_NAMES = {"onClientTick", "onMenuOptionClicked", "onAnimationChanged", "render"};
+
+    private final SpecBarClock clock;
+
+    // Ring of the last WINDOW sampled durations for each handler, laid out handler by handler
+    private final long[] samples = new long[HANDLER_COUNT * WINDOW];
+    private final long[] sampleSums = new long[HANDLER_COUNT];
+    private final int[] sampleCounts = new int[HANDLER_COUNT];
+    private final int[] nextSample = new int[HANDLER_COUNT];
+
+    // Calls since the last budget check, sampled or not
+    private final int[] calls = new int[HANDLER_COUNT];
+    private int frames = 0;
+
+    private long budgetNanos = 0;
+    private volatile int level = LEVEL_FULL;
+
+    @Inject
+    SpecBarFrameBudget(SpecBarClock clock)
+    {
+        this.clock = clock;
+    }
+
+    /**
+     * Sets the budget per frame; 0 turns instrumentation off and restores full rendering.
+     */
+    void setBudgetMicros(int budgetMicros)
+    {
+        budgetNanos = budgetMicros * 1000L;
+        if (budgetNanos == 0)
+        {
+            reset();
+        }
+    }
+
+    /**
+     * Called on entry to {@code handler}.
+     *
+     * @return the start time to pass to {@link #end}, or {@link #NOT_SAMPLED} if this call is not timed
+     */
+    long start(int handler)
+    {
+        if (budgetNanos == 0 || calls[handler]++ % SAMPLE_INTERVAL != 0)
+        {
+            return NOT_SAMPLED;
+        }
+        return clock.nanoTime();
+    }
+
+    void end(int handler, long startNanos)
+    {
+        if (startNanos == NOT_SAMPLED)
+        {
+            return;
+        }
+
+        long duration = clock.nanoTime() - startNanos;
+        int slot = handler * WINDOW + nextSample[handler];
+        sampleSums[handler] += duration - samples[slot];
+        samples[slot] = duration;
+        nextSample[handler] = (nextSample[handler] + 1) % WINDOW;
+        if (sampleCounts[handler] < WINDOW)
+        {
+            sampleCounts[handler]++;
+        }
+    }
+
+    /**
+     * Called once per client tick. Every {@link #EVALUATE_FRAMES} frames the average cost per frame is
+     * checked against the budget, moving at most one level either way.
+     *
+     * @return true if the level changed
+     */
+    boolean frame()
+    {
+        if (budgetNanos == 0 || ++frames < EVALUATE_FRAMES)
+        {
+            return false;
+        }
+
+        long frameNanos = frameNanos();
+        frames = 0;
+        for (int handler = 0; handler < HANDLER_COUNT; handler++)
+        {
+            calls[handler] = 0;
+        }
+
+        int current = level;
+        if (frameNanos > budgetNanos && current < LEVEL_SLOW_HOVER)
+        {
+            level = current + 1;
+            log.info("Spec bar over its frame budget ({} > {} us), rendering reduced to {}; {}",
+                frameNanos / 1000, budgetNanos / 1000, LEVEL_NAMES[current + 1], averages());
+            return true;
+        }
+        // Only recover once comfortably under, so a cost near the budget does not flip every second
+        if (frameNanos < budgetNanos / 2 && current > LEVEL_FULL)
+        {
+            level = current - 1;
+            log.info("Spec bar back under its frame budget ({} < {} us), rendering restored to {}",
+                frameNanos / 1000, budgetNanos / 1000, LEVEL_NAMES[current - 1]);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Average cost per frame over the frames since the last check: each handler's rolling average per
+     * call, times how often it ran.
+     */
+    long frameNanos()
+    {
+        if (frames == 0)
+        {
+            return 0;
+        }
+
+        long total = 0;
+        for (int handler = 0; handler < HANDLER_COUNT; handler++)
+        {
+            total += averageNanos(handler) * calls[handler];
+        }
+        return total / frames;
+    }
+
+    long averageNanos(int handler)
+    {
+        int count = sampleCounts[handler];
+        return count == 0 ? 0 : sampleSums[handler] / count;
+    }
+
+    int getLevel()
+    {
+        return level;
+    }
+
+    void reset()
+    {
+        Arrays.fill(samples, 0);
+        for (int handler = 0; handler < HANDLER_COUNT; handler++)
+        {
+            sampleSums[handler] = 0;
+            sampleCounts[handler] = 0;
+            nextSample[handler] = 0;
+            calls[handler] = 0;
+        }
+        frames = 0;
+        if (level != LEVEL_FULL)
+        {
+            level = LEVEL_FULL;
+            log.info("Spec bar frame budget reset, rendering restored to {}", LEVEL_NAMES[LEVEL_FULL]);
+        }
+    }
+
+    private String averages()
+    {
+        StringBuilder builder = new StringBuilder("average per call:");
+        for (int handler = 0; handler < HANDLER_COUNT; handler++)
+        {
+            builder.append(' ').append(HANDLER_NAMES[handler]).append('=').append(averageNanos(handler)).append("ns");
+        }
+        return builder.toString();
+    }
+}
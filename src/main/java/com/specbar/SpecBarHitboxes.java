@@ -0,0 +1,122 @@
+package com.specbar;
+
+import java.awt.Rectangle;
+
+/**
+ * Immutable hit-test index over the highlighted targets. The canvas is split into a uniform grid;
+ * each cell holds a bitmask of the targets overlapping it, so a lookup is one array read plus a
+ * bounds check per target sharing that cell, however many targets are registered.
+ */
+final class SpecBarHitboxes
+{
+    static final int NONE = -1;
+    static final int SPEC_BAR = 0;    // Combat tab special attack bar
+    static final int SPEC_ORB = 1;    // Minimap special attack orb
+    static final int PRAYER_ORB = 2;  // Minimap prayer orb, which toggles quick prayers
+    static final int RUN_ORB = 3;     // Minimap run orb
+    static final int TARGET_COUNT = 4;
+
+    static final SpecBarHitboxes EMPTY = new SpecBarHitboxes(new Rectangle[TARGET_COUNT]);
+
+    // 32px cells: orbs fit in one or two, the spec bar in a handful
+    private static final int CELL_SHIFT = 5;
+
+    private final Rectangle[] bounds;
+    private final int columns;
+    private final int rows;
+    private final int[] cells;
+
+    private SpecBarHitboxes(Rectangle[] bounds)
+    {
+        this.bounds = bounds;
+
+        int maxX = -1;
+        int maxY = -1;
+        for (Rectangle r : bounds)
+        {
+            if (r != null && !r.isEmpty())
+            {
+                maxX = Math.max(maxX, r.x + r.width - 1);
+                maxY = Math.max(maxY, r.y + r.height - 1);
+            }
+        }
+
+        columns = maxX < 0 ? 0 : (maxX >> CELL_SHIFT) + 1;
+        rows = maxY < 0 ? 0 : (maxY >> CELL_SHIFT) + 1;
+        cells = new int[columns * rows];
+        for (int target = 0; target < TARGET_COUNT; target++)
+        {
+            Rectangle r = bounds[target];
+            if (r == null || r.isEmpty())
+            {
+                continue;
+            }
+
+            int firstColumn = Math.max(r.x, 0) >> CELL_SHIFT;
+            int lastColumn = (r.x + r.width - 1) >> CELL_SHIFT;
+            int firstRow = Math.max(r.y, 0) >> CELL_SHIFT;
+            int lastRow = (r.y + r.height - 1) >> CELL_SHIFT;
+            for (int row = firstRow; row <= lastRow; row++)
+            {
+                for (int column = firstColumn; column <= lastColumn; column++)
+                {
+                    cells[row * columns + column] |= 1 << target;
+                }
+            }
+        }
+    }
+
+    /**
+     * @param bounds canvas bounds indexed by target, null for targets that are hidden or disabled;
+     *               the rectangles must not be modified afterwards
+     */
+    static SpecBarHitboxes of(Rectangle[] bounds)
+    {
+        if (bounds.length != TARGET_COUNT)
+        {
+            throw new IllegalArgumentException("Expected " + TARGET_COUNT + " targets, got " + bounds.length);
+        }
+        return new SpecBarHitboxes(bounds.clone());
+    }
+
+    /**
+     * @return the target under the canvas point, or {@link #NONE}
+     */
+    int targetAt(int x, int y)
+    {
+        if (x < 0 || y < 0)
+        {
+            return NONE;
+        }
+
+        int column = x >> CELL_SHIFT;
+        int row = y >> CELL_SHIFT;
+        if (column >= columns || row >= rows)
+        {
+            return NONE;
+        }
+
+        for (int mask = cells[row * columns + column]; mask != 0; mask &= mask - 1)
+        {
+            int target = Integer.numberOfTrailingZeros(mask);
+            if (bounds[target].contains(x, y))
+            {
+                return target;
+            }
+        }
+        return NONE;
+    }
+
+    /**
+     * @return the target's bounds, or null while it is hidden or disabled
+     */
+    Rectangle getBounds(int target)
+    {
+        return bounds[target];
+    }
+
+    static boolean isSpecTarget(int target)
+    {
+        return target == SPEC_BAR || target == SPEC_ORB;
+    }
+}
@@ -0,0 +1,327 @@
+package com.specbar;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.FlightRecorderListener;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Java Flight Recorder events for spec bar clicks and overlay frames, so the plugin's work shows up next
+ * to GC pauses and client frame times in JMC. Every event is disabled by default; enable them in a
+ * recording's settings, e.g. {@code jfr configure com.specbar.Click#enabled=true}.
+ *
+ * <p>Nothing is created unless a running recording has the event enabled, so the hot paths cost a
+ * volatile read. Whether each event is enabled is refreshed when a recording starts or stops; settings
+ * changed on a recording that is already running are picked up at its next state change. Runtimes
+ * built without the {@code jdk.jfr} module skip the events entirely.
+ */
+final class SpecBarJfr
+{
+    static final String SOURCE_ENERGY_VARP = "energy varp";
+    static final String SOURCE_ANIMATION = "animation";
+    static final String SOURCE_GRAPHIC = "graphic";
+
+    private static final boolean AVAILABLE = isAvailable();
+
+    // Whether a running recording has each event enabled; kept up to date by the listener between start() and stop()
+    private static volatile boolean clickEnabled;
+    private static volatile boolean confirmEnabled;
+    private static volatile boolean failureEnabled;
+    private static volatile boolean timeoutEnabled;
+    private static volatile boolean renderEnabled;
+    private static RecordingListener listener;
+
+    private SpecBarJfr()
+    {
+    }
+
+    /**
+     * Starts following recordings. Does not start JFR itself.
+     */
+    static synchronized void start()
+    {
+        if (AVAILABLE && listener == null)
+        {
+            listener = new RecordingListener();
+            FlightRecorder.addListener(listener);
+        }
+    }
+
+    static synchronized void stop()
+    {
+        if (listener != null)
+        {
+            FlightRecorder.removeListener(listener);
+            listener = null;
+            clickEnabled = false;
+            confirmEnabled = false;
+            failureEnabled = false;
+            timeoutEnabled = false;
+            renderEnabled = false;
+        }
+    }
+
+    private static boolean isAvailable()
+    {
+        try
+        {
+            Class.forName("jdk.jfr.Event", false, SpecBarJfr.class.getClassLoader());
+            return true;
+        }
+        catch (ClassNotFoundException | LinkageError e)
+        {
+            return false;
+        }
+    }
+
+    /**
+     * A spec bar or orb click reached the plugin as a menu action.
+     *
+     * @param sincePressNanos time since the mouse press that already showed the click, or 0 without one
+     */
+    static void click(int target, boolean cancelled, long sincePressNanos, int energy)
+    {
+        if (!clickEnabled)
+        {
+            return;
+        }
+
+        ClickEvent event = new ClickEvent();
+        event.target = target;
+        event.cancelled = cancelled;
+        event.sincePress = sincePressNanos;
+        event.energy = energy;
+        event.commit();
+    }
+
+    /**
+     * The server used the spec a pending click asked for.
+     *
+     * @param id the varp, animation or graphic that gave it away
+     */
+    static void confirmed(String source, int id, long sinceClickNanos, int energy)
+    {
+        if (!confirmEnabled)
+        {
+            return;
+        }
+
+        ConfirmEvent event = new ConfirmEvent();
+        event.source = source;
+        event.id = id;
+        event.sinceClick = sinceClickNanos;
+        event.energy = energy;
+        event.commit();
+    }
+
+    /**
+     * The server rejected a pending click with the "not enough power" chat message.
+     */
+    static void failed(long sinceClickNanos, int energy)
+    {
+        if (!failureEnabled)
+        {
+            return;
+        }
+
+        FailureEvent event = new FailureEvent();
+        event.sinceClick = sinceClickNanos;
+        event.energy = energy;
+        event.commit();
+    }
+
+    /**
+     * Nothing resolved a pending click within the detection window.
+     */
+    static void timedOut(long sinceClickNanos, int ticks, int energy)
+    {
+        if (!timeoutEnabled)
+        {
+            return;
+        }
+
+        TimeoutEvent event = new TimeoutEvent();
+        event.sinceClick = sinceClickNanos;
+        event.ticks = ticks;
+        event.energy = energy;
+        event.commit();
+    }
+
+    /**
+     * Starts timing an overlay frame; pass the result to {@link #renderFinished}. Null unless a recording has the event enabled.
+     */
+    static RenderEvent renderStarted()
+    {
+        if (!renderEnabled)
+        {
+            return null;
+        }
+
+        RenderEvent event = new RenderEvent();
+        event.begin();
+        return event;
+    }
+
+    static void renderFinished(RenderEvent event, int specBarState, int degradeLevel, boolean fading)
+    {
+        if (event == null)
+        {
+            return;
+        }
+
+        event.end();
+        if (event.shouldCommit())
+        {
+            event.specBarState = specBarState;
+            event.degradeLevel = degradeLevel;
+            event.fading = fading;
+            event.commit();
+        }
+    }
+
+    private static final class RecordingListener implements FlightRecorderListener
+    {
+        @Override
+        public void recorderInitialized(FlightRecorder recorder)
+        {
+            update(recorder);
+        }
+
+        @Override
+        public void recordingStateChanged(Recording changed)
+        {
+            update(FlightRecorder.getFlightRecorder());
+        }
+
+        private static void update(FlightRecorder recorder)
+        {
+            boolean running = false;
+            for (Recording r : recorder.getRecordings())
+            {
+                running |= r.getState() == RecordingState.RUNNING;
+            }
+            // Enabled only counts while a recording runs; skip looking the types up when none does
+            clickEnabled = running && EventType.getEventType(ClickEvent.class).isEnabled();
+            confirmEnabled = running && EventType.getEventType(ConfirmEvent.class).isEnabled();
+            failureEnabled = running && EventType.getEventType(FailureEvent.class).isEnabled();
+            timeoutEnabled = running && EventType.getEventType(TimeoutEvent.class).isEnabled();
+            renderEnabled = running && EventType.getEventType(RenderEvent.class).isEnabled();
+        }
+    }
+
+    @Name("com.specbar.Click")
+    @Label("Spec Bar Click")
+    @Description("A spec bar or spec orb click reached the plugin")
+    @Category({"RuneLite", "Spec Bar Utilities"})
+    @Enabled(false)
+    @StackTrace(false)
+    static final class ClickEvent extends Event
+    {
+        @Label("Target")
+        @Description("SpecBarHitboxes target: 0 spec bar, 1 spec orb")
+        int target;
+
+        @Label("Cancelled")
+        @Description("Clicked again while pending, toggling the spec back off")
+        boolean cancelled;
+
+        @Label("Since Press")
+        @Description("Time since the mouse press that already showed the click; 0 without instant click feedback")
+        @Timespan
+        long sincePress;
+
+        @Label("Energy")
+        @Description("Spec energy in tenths of a percent")
+        int energy;
+    }
+
+    @Name("com.specbar.Confirm")
+    @Label("Spec Bar Confirm")
+    @Description("The server used the spec a click asked for")
+    @Category({"RuneLite", "Spec Bar Utilities"})
+    @Enabled(false)
+    @StackTrace(false)
+    static final class ConfirmEvent extends Event
+    {
+        @Label("Source")
+        String source;
+
+        @Label("ID")
+        @Description("The varp, animation or graphic ID")
+        int id;
+
+        @Label("Since Click")
+        @Timespan
+        long sinceClick;
+
+        @Label("Energy")
+        @Description("Spec energy in tenths of a percent")
+        int energy;
+    }
+
+    @Name("com.specbar.Failure")
+    @Label("Spec Bar Failure")
+    @Description("The server rejected a spec click for lack of energy")
+    @Category({"RuneLite", "Spec Bar Utilities"})
+    @Enabled(false)
+    @StackTrace(false)
+    static final class FailureEvent extends Event
+    {
+        @Label("Since Click")
+        @Timespan
+        long sinceClick;
+
+        @Label("Energy")
+        @Description("Spec energy in tenths of a percent")
+        int energy;
+    }
+
+    @Name("com.specbar.Timeout")
+    @Label("Spec Bar Timeout")
+    @Description("Nothing resolved a spec click within the detection window")
+    @Category({"RuneLite", "Spec Bar Utilities"})
+    @Enabled(false)
+    @StackTrace(false)
+    static final class TimeoutEvent extends Event
+    {
+        @Label("Since Click")
+        @Timespan
+        long sinceClick;
+
+        @Label("Ticks")
+        int ticks;
+
+        @Label("Energy")
+        @Description("Spec energy in tenths of a percent")
+        int energy;
+    }
+
+    @Name("com.specbar.Render")
+    @Label("Spec Bar Render")
+    @Description("One overlay frame")
+    @Category({"RuneLite", "Spec Bar Utilities"})
+    @Enabled(false)
+    @StackTrace(false)
+    static final class RenderEvent extends Event
+    {
+        @Label("Spec Bar State")
+        @Description("SpecBarSpriteCache state of the spec bar: -1 none, 0 idle, 1 hover, 2 click")
+        int specBarState;
+
+        @Label("Degrade Level")
+        @Description("SpecBarFrameBudget level the frame was drawn at")
+        int degradeLevel;
+
+        @Label("Fading")
+        boolean fading;
+    }
+}
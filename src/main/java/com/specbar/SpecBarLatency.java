@@ -0,0 +1,127 @@
+package com.specbar;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+/**
+ * Measures how long each spec bar click takes to show up on screen and to be resolved by the server.
+ * All methods are called on the client thread; the histograms themselves may be read from any thread.
+ */
+@Singleton
+class SpecBarLatency
+{
+    private static final long NO_CLICK = Long.MIN_VALUE;
+
+    private final SpecBarClock clock;
+
+    private final LatencyHistogram clickToFrame = new LatencyHistogram();
+    private final LatencyHistogram clickToConfirm = new LatencyHistogram();
+    private final LatencyHistogram clickToTimeout = new LatencyHistogram();
+
+    private long clickNanos = NO_CLICK;
+    private boolean awaitingFrame = false;
+    private boolean awaitingResolution = false;
+
+    @Inject
+    SpecBarLatency(SpecBarClock clock)
+    {
+        this.clock = clock;
+    }
+
+    void clickStarted()
+    {
+        clickStarted(clock.nanoTime());
+    }
+
+    /**
+     * A click that began at {@code startNanos}, e.g. when the mouse button went down before the menu action arrived.
+     */
+    void clickStarted(long startNanos)
+    {
+        clickNanos = startNanos;
+        awaitingFrame = true;
+        awaitingResolution = true;
+    }
+
+    /**
+     * Called by the overlay for every frame drawn in the click state; only the first one is recorded.
+     */
+    void clickFrameRendered()
+    {
+        clickFrameRendered(clock.nanoTime());
+    }
+
+    void clickFrameRendered(long frameNanos)
+    {
+        if (awaitingFrame)
+        {
+            awaitingFrame = false;
+            clickToFrame.record(frameNanos - clickNanos);
+        }
+    }
+
+    /**
+     * The server resolved the click: a varp drop, a spec animation or graphic, or a failure message.
+     */
+    void clickConfirmed()
+    {
+        if (awaitingResolution)
+        {
+            awaitingResolution = false;
+            clickToConfirm.record(clock.nanoTime() - clickNanos);
+        }
+    }
+
+    /**
+     * Nothing confirmed the click before the detection window ran out.
+     */
+    void clickTimedOut()
+    {
+        if (awaitingResolution)
+        {
+            awaitingResolution = false;
+            clickToTimeout.record(clock.nanoTime() - clickNanos);
+        }
+    }
+
+    /**
+     * Time since the last click started, or 0 before the first one.
+     */
+    long sinceClick()
+    {
+        return clickNanos == NO_CLICK ? 0 : clock.nanoTime() - clickNanos;
+    }
+
+    /**
+     * The click was withdrawn by the player (e.g. toggled off) and should not count towards any interval.
+     */
+    void clickCancelled()
+    {
+        awaitingFrame = false;
+        awaitingResolution = false;
+    }
+
+    void reset()
+    {
+        clickCancelled();
+        clickNanos = NO_CLICK;
+        clickToFrame.reset();
+        clickToConfirm.reset();
+        clickToTimeout.reset();
+    }
+
+    LatencyHistogram getClickToFrame()
+    {
+        return clickToFrame;
+    }
+
+    LatencyHistogram getClickToConfirm()
+    {
+        return clickToConfirm;
+    }
+
+    LatencyHistogram getClickToTimeout()
+    {
+        return clickToTimeout;
+    }
+}
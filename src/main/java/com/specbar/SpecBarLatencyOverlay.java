@@ -0,0 +1,59 @@
+package com.specbar;
+
+import net.runelite.client.ui.overlay.OverlayPanel;
+import net.runelite.client.ui.overlay.OverlayPosition;
+import net.runelite.client.ui.overlay.components.LineComponent;
+import net.runelite.client.ui.overlay.components.TitleComponent;
+
+import javax.inject.Inject;
+import java.awt.*;
+
+/**
+ * Debug panel showing click latency percentiles. Only added to the overlay manager while enabled in config.
+ */
+public class SpecBarLatencyOverlay extends OverlayPanel
+{
+    private final SpecBarLatency latency;
+
+    @Inject
+    private SpecBarLatencyOverlay(SpecBarPlugin plugin, SpecBarLatency latency)
+    {
+        super(plugin);
+        this.latency = latency;
+        setPosition(OverlayPosition.TOP_LEFT);
+    }
+
+    @Override
+    public Dimension render(Graphics2D graphics)
+    {
+        panelComponent.getChildren().add(TitleComponent.builder()
+            .text("Spec Bar Latency (ms)")
+            .build());
+
+        addHistogram("Click to frame", latency.getClickToFrame());
+        addHistogram("Click to confirm", latency.getClickToConfirm());
+        addHistogram("Click to timeout", latency.getClickToTimeout());
+
+        return super.render(graphics);
+    }
+
+    private void addHistogram(String name, LatencyHistogram histogram)
+    {
+        panelComponent.getChildren().add(LineComponent.builder()
+            .left(name)
+            .right("n=" + histogram.getCount())
+            .build());
+        panelComponent.getChildren().add(LineComponent.builder()
+            .left("  p50 / p95 / p99")
+            .right(formatMillis(histogram.getPercentile(50)) + " / "
+                + formatMillis(histogram.getPercentile(95)) + " / "
+                + formatMillis(histogram.getPercentile(99)))
+            .rightColor(Color.YELLOW)
+            .build());
+    }
+
+    private static String formatMillis(long nanos)
+    {
+        return String.format("%.1f", nanos / 1_000_000d);
+    }
+}
@@ -0,0 +1,160 @@
+package com.specbar;
+
+import net.runelite.api.Client;
+import net.runelite.api.gameval.InterfaceID;
+import net.runelite.api.widgets.Widget;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.awt.Rectangle;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Widgets and geometry of the highlighted targets, shared by the plugin and the overlay. Lookups only
+ * happen after {@link #invalidate()} is called for a layout change, never on a timer or per frame.
+ */
+@Singleton
+public class SpecBarLayout
+{
+    // Widget positions are recomputed while the next frame is drawn, so re-read them for a couple of ticks
+    private static final int SETTLE_TICKS = 2;
+
+    // Component ids indexed by SpecBarHitboxes target
+    private static final int[] TARGET_COMPONENTS = {
+        InterfaceID.CombatInterface.SP_ATTACKBAR,
+        InterfaceID.Orbs.SPECBUTTON,
+        InterfaceID.Orbs.PRAYERBUTTON,
+        InterfaceID.Orbs.RUNBUTTON
+    };
+
+    private final Client client;
+
+    private Widget specBarWidget; // Client thread only
+    // Written by invalidate() from any thread (config changes arrive off the client thread), counted down by the client thread
+    private final AtomicInteger refreshTicks = new AtomicInteger();
+    private volatile int enabledTargets = 1 << SpecBarHitboxes.SPEC_BAR;
+
+    // Published snapshots; never mutated after being assigned
+    private volatile Rectangle specBarBounds;
+    private volatile SpecBarHitboxes hitboxes = SpecBarHitboxes.EMPTY;
+
+    @Inject
+    SpecBarLayout(Client client)
+    {
+        this.client = client;
+    }
+
+    /**
+     * Marks the cached widgets as stale after an interface load or close, a resizable mode switch,
+     * a canvas resize, a stretched mode change or a side panel tab switch.
+     */
+    void invalidate()
+    {
+        refreshTicks.set(SETTLE_TICKS);
+    }
+
+    /**
+     * Selects which targets are looked up, as a bitmask of {@link SpecBarHitboxes} targets.
+     */
+    void setEnabledTargets(int targetMask)
+    {
+        if (targetMask != enabledTargets)
+        {
+            enabledTargets = targetMask;
+            invalidate();
+        }
+    }
+
+    /**
+     * Re-reads the widgets if the layout was invalidated. Must be called on the client thread.
+     *
+     * @return true if the cached geometry was refreshed
+     */
+    boolean refreshIfInvalid()
+    {
+        int ticks = refreshTicks.get();
+        if (ticks == 0)
+        {
+            return false;
+        }
+
+        // Fails only if invalidate() just ran, which must keep its full count
+        refreshTicks.compareAndSet(ticks, ticks - 1);
+        specBarWidget = visibleWidget(InterfaceID.CombatInterface.SP_ATTACKBAR);
+        specBarBounds = clickbox(specBarWidget);
+
+        int targets = enabledTargets;
+        Rectangle[] clickboxes = new Rectangle[SpecBarHitboxes.TARGET_COUNT];
+        clickboxes[SpecBarHitboxes.SPEC_BAR] = specBarBounds;
+        for (int target = SpecBarHitboxes.SPEC_ORB; target < SpecBarHitboxes.TARGET_COUNT; target++)
+        {
+            if ((targets & 1 << target) != 0)
+            {
+                clickboxes[target] = clickbox(visibleWidget(TARGET_COMPONENTS[target]));
+            }
+        }
+        hitboxes = SpecBarHitboxes.of(clickboxes);
+        return true;
+    }
+
+    /**
+     * The area of {@code widget} that takes clicks: its bounds clipped by every parent layer, the
+     * same way the client clips both drawing and mouse input. Null if nothing is left.
+     */
+    static Rectangle clickbox(Widget widget)
+    {
+        if (widget == null)
+        {
+            return null;
+        }
+
+        Rectangle clickbox = widget.getBounds();
+        for (Widget parent = widget.getParent(); parent != null && clickbox != null; parent = parent.getParent())
+        {
+            Rectangle parentBounds = parent.getBounds();
+            if (parentBounds != null)
+            {
+                clickbox = clickbox.intersection(parentBounds);
+            }
+        }
+        return clickbox == null || clickbox.isEmpty() ? null : clickbox;
+    }
+
+    void clear()
+    {
+        refreshTicks.set(0);
+        specBarWidget = null;
+        specBarBounds = null;
+        hitboxes = SpecBarHitboxes.EMPTY;
+    }
+
+    private Widget visibleWidget(int componentId)
+    {
+        Widget widget = client.getWidget(componentId);
+        return widget != null && !widget.isHidden() ? widget : null;
+    }
+
+    /**
+     * The spec bar component, or null while it is not shown. Client thread only.
+     */
+    Widget getSpecBarWidget()
+    {
+        return specBarWidget;
+    }
+
+    /**
+     * Clickable area of the spec bar in canvas coordinates, clipped by its parents, or null while it is not shown.
+     */
+    Rectangle getSpecBarBounds()
+    {
+        return specBarBounds;
+    }
+
+    /**
+     * Clickboxes of every enabled, visible target. The overlay highlights exactly these areas.
+     */
+    SpecBarHitboxes getHitboxes()
+    {
+        return hitboxes;
+    }
+}
@@ -0,0 +1,60 @@
+package com.specbar;
+
+import net.runelite.client.input.MouseAdapter;
+
+import javax.inject.Inject;
+import java.awt.event.MouseEvent;
+
+/**
+ * Drives hover detection, and the optional instant click feedback, from mouse input so nothing is
+ * recomputed while the cursor is idle.
+ * Events are never consumed; they are passed through to the client unchanged.
+ */
+public class SpecBarMouseListener extends MouseAdapter
+{
+    private final SpecBarPlugin plugin;
+
+    @Inject
+    private SpecBarMouseListener(SpecBarPlugin plugin)
+    {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public MouseEvent mouseMoved(MouseEvent mouseEvent)
+    {
+        plugin.onMouseMoved(mouseEvent.getX(), mouseEvent.getY());
+        return mouseEvent;
+    }
+
+    @Override
+    public MouseEvent mouseDragged(MouseEvent mouseEvent)
+    {
+        plugin.onMouseMoved(mouseEvent.getX(), mouseEvent.getY());
+        return mouseEvent;
+    }
+
+    @Override
+    public MouseEvent mouseEntered(MouseEvent mouseEvent)
+    {
+        plugin.onMouseMoved(mouseEvent.getX(), mouseEvent.getY());
+        return mouseEvent;
+    }
+
+    @Override
+    public MouseEvent mousePressed(MouseEvent mouseEvent)
+    {
+        if (mouseEvent.getButton() == MouseEvent.BUTTON1)
+        {
+            plugin.onMousePressed(mouseEvent.getX(), mouseEvent.getY());
+        }
+        return mouseEvent;
+    }
+
+    @Override
+    public MouseEvent mouseExited(MouseEvent mouseEvent)
+    {
+        plugin.onMouseMoved(-1, -1);
+        return mouseEvent;
+    }
+}
@@ -1,25 +1,44 @@
 package com.specbar;
 
 import net.runelite.api.Client;
-import net.runelite.api.gameval.InterfaceID;
-import net.runelite.api.widgets.Widget;
 import net.runelite.client.ui.overlay.Overlay;
 import net.runelite.client.ui.overlay.OverlayLayer;
 import net.runelite.client.ui.overlay.OverlayPosition;
 
 import javax.inject.Inject;
 import java.awt.*;
+import java.awt.image.BufferedImage;
 
 public class SpecBarOverlay extends Overlay
 {
-    private final Client client;
     private final SpecBarPlugin plugin;
+    private final Client client;
+
+    // Pre-rendered images per target and state; regenerated only on resize or palette change
+    private final SpecBarSpriteCache[] sprites = new SpecBarSpriteCache[SpecBarHitboxes.TARGET_COUNT];
+    private final BufferedImage[] targetSprites = new BufferedImage[SpecBarHitboxes.TARGET_COUNT];
+    private final Rectangle[] targetBounds = new Rectangle[SpecBarHitboxes.TARGET_COUNT];
+    private final int[] targetRenderStates = new int[SpecBarHitboxes.TARGET_COUNT];
+
+    // Per target: the sprite being faded out, where it was, and the client cycle the render state last changed
+    private final BufferedImage[] fadingSprites = new BufferedImage[SpecBarHitboxes.TARGET_COUNT];
+    private final Rectangle[] fadingBounds = new Rectangle[SpecBarHitboxes.TARGET_COUNT];
+    private final int[] changedCycles = new int[SpecBarHitboxes.TARGET_COUNT];
+    private boolean fading;
+
+    // The snapshot targetSprites were resolved for
+    private SpecBarState lastState = SpecBarState.EMPTY;
 
     @Inject
-    private SpecBarOverlay(Client client, SpecBarPlugin plugin)
+    private SpecBarOverlay(SpecBarPlugin plugin, Client client)
     {
-        this.client = client;
         this.plugin = plugin;
+        this.client = client;
+        for (int target = 0; target < SpecBarHitboxes.TARGET_COUNT; target++)
+        {
+            sprites[target] = new SpecBarSpriteCache(target);
+            targetRenderStates[target] = SpecBarState.NONE;
+        }
         setPosition(OverlayPosition.DYNAMIC);
         setLayer(OverlayLayer.ABOVE_WIDGETS);
     }
@@ -27,69 +46,127 @@ public class SpecBarOverlay extends Overlay
     @Override
     public Dimension render(Graphics2D graphics)
     {
-        Widget energyWidget = client.getWidget(InterfaceID.CombatInterface.CURRENTENERGY_COLOUR);
-        if (energyWidget == null || energyWidget.isHidden())
+        SpecBarFrameBudget budget = plugin.getFrameBudget();
+        long start = budget.start(SpecBarFrameBudget.OVERLAY_RENDER);
+        SpecBarJfr.RenderEvent event = SpecBarJfr.renderStarted();
+        int level = budget.getLevel();
+        try
         {
-            return null;
+            renderTargets(graphics, level);
         }
-
-        Rectangle bounds = energyWidget.getBounds();
-        if (bounds == null)
+        finally
         {
-            return null;
+            budget.end(SpecBarFrameBudget.OVERLAY_RENDER, start);
+            SpecBarJfr.renderFinished(event, targetRenderStates[SpecBarHitboxes.SPEC_BAR], level, fading);
         }
+        return null;
+    }
 
-        // Check if any effect should be rendered
-        boolean hasClickEffect = plugin.isClicked();
-        boolean hasHoverEffect = plugin.isHovering();
-        boolean hasIdleEffect = plugin.isIdleBorderEnabled() && !hasClickEffect && !hasHoverEffect;
-        
-        // Early exit if no effects are active
-        if (!hasClickEffect && !hasHoverEffect && !hasIdleEffect)
+    private void renderTargets(Graphics2D graphics, int degradeLevel)
+    {
+        // A single volatile read; states, bounds and palette always belong together
+        SpecBarState state = plugin.getState();
+        if (state.isEmpty() && state == lastState && !fading)
         {
-            return null;
+            return;
         }
 
-        // Create a graphics context only when needed
-        Graphics2D g2d = (Graphics2D) graphics.create();
-        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-
-        // Render effects in priority order: Click > Hover > Idle
-        if (hasClickEffect)
+        // Over budget, states switch instantly again: one opaque blit per target instead of blended fades
+        SpecBarTransitions transitions = degradeLevel >= SpecBarFrameBudget.LEVEL_NO_TRANSITIONS
+            ? SpecBarTransitions.NONE : plugin.getPalette().getTransitions();
+        int cycle = client.getGameCycle();
+        if (state != lastState)
         {
-            renderEffect(g2d, bounds, plugin.getClickAreaColor(), plugin.getClickBorderColor());
+            resolveSprites(state, lastState, graphics.getDeviceConfiguration(), transitions, cycle);
+            lastState = state;
         }
-        else if (hasHoverEffect)
+
+        if (state.getRenderState(SpecBarHitboxes.SPEC_BAR) == SpecBarSpriteCache.STATE_CLICK
+            || state.getRenderState(SpecBarHitboxes.SPEC_ORB) == SpecBarSpriteCache.STATE_CLICK)
         {
-            renderEffect(g2d, bounds, plugin.getHoverAreaColor(), plugin.getHoverBorderColor());
+            plugin.clickFrameRendered();
         }
-        else if (hasIdleEffect)
+
+        // Blits over the exact clickboxes the hover and clicks are tested against, faded through pooled composites
+        Composite composite = graphics.getComposite();
+        boolean stillFading = false;
+        for (int target = 0; target < SpecBarHitboxes.TARGET_COUNT; target++)
         {
-            renderEffect(g2d, bounds, plugin.getIdleAreaColor(), plugin.getIdleBorderColor());
-        }
+            int elapsed = cycle - changedCycles[target];
+            boolean fadeActive = elapsed < transitions.getFadeCycles();
+            int fadeStep = transitions.fadeStep(elapsed);
 
-        g2d.dispose();
-        return null;
-    }
+            BufferedImage fadingSprite = fadingSprites[target];
+            if (fadingSprite != null)
+            {
+                if (fadeActive)
+                {
+                    stillFading = true;
+                    Rectangle bounds = fadingBounds[target];
+                    graphics.setComposite(SpecBarTransitions.composite(SpecBarTransitions.STEPS - fadeStep));
+                    graphics.drawImage(fadingSprite, bounds.x, bounds.y, null);
+                }
+                else
+                {
+                    fadingSprites[target] = null;
+                    fadingBounds[target] = null;
+                }
+            }
 
-    private void renderEffect(Graphics2D g2d, Rectangle bounds, 
-                             Color areaColor, Color borderColor)
-    {
-        // Draw area fill (color already includes opacity from @Alpha annotation)
-        g2d.setColor(areaColor);
-        g2d.fillRect(bounds.x, bounds.y, bounds.width, bounds.height);
-
-        // Draw border (color already includes opacity from @Alpha annotation)
-        g2d.setColor(borderColor);
-        g2d.setStroke(new BasicStroke(2));
-        g2d.drawRect(bounds.x, bounds.y, bounds.width - 1, bounds.height - 1);
+            BufferedImage sprite = targetSprites[target];
+            if (sprite == null)
+            {
+                continue;
+            }
+
+            int step = SpecBarTransitions.STEPS;
+            if (fadeActive)
+            {
+                stillFading = true;
+                step = fadeStep;
+            }
+            else if (transitions.isPulsing() && targetRenderStates[target] == SpecBarSpriteCache.STATE_CLICK)
+            {
+                stillFading = true;
+                step = transitions.pulseStep(elapsed);
+            }
+
+            Rectangle bounds = targetBounds[target];
+            graphics.setComposite(step == SpecBarTransitions.STEPS ? composite : SpecBarTransitions.composite(step));
+            graphics.drawImage(sprite, bounds.x, bounds.y, null);
+        }
+        graphics.setComposite(composite);
+        fading = stillFading;
     }
-    
-    private void renderIdleBorder(Graphics2D g2d, Rectangle bounds, Color borderColor)
+
+    private void resolveSprites(SpecBarState state, SpecBarState previous, GraphicsConfiguration configuration,
+                                SpecBarTransitions transitions, int cycle)
     {
-        // Draw only border for idle state (no area fill)
-        g2d.setColor(borderColor);
-        g2d.setStroke(new BasicStroke(1)); // Thinner stroke for subtle idle indication
-        g2d.drawRect(bounds.x, bounds.y, bounds.width - 1, bounds.height - 1);
+        // Sprites for another palette are stale, so a palette change switches without fading
+        boolean fade = transitions.getFadeCycles() > 0 && (previous.isEmpty() || state.isEmpty()
+            || previous.getPalette() == state.getPalette());
+        for (int target = 0; target < SpecBarHitboxes.TARGET_COUNT; target++)
+        {
+            int renderState = state.getRenderState(target);
+            if (renderState != targetRenderStates[target])
+            {
+                targetRenderStates[target] = renderState;
+                changedCycles[target] = cycle;
+                fadingSprites[target] = fade ? targetSprites[target] : null;
+                fadingBounds[target] = fade ? targetBounds[target] : null;
+                fading |= fade;
+            }
+
+            if (renderState == SpecBarState.NONE)
+            {
+                targetSprites[target] = null;
+                targetBounds[target] = null;
+                continue;
+            }
+
+            Rectangle bounds = state.getBounds(target);
+            targetSprites[target] = sprites[target].get(renderState, bounds.width, bounds.height, state.getPalette(), configuration);
+            targetBounds[target] = bounds;
+        }
     }
 }
@@ -0,0 +1,231 @@
+package com.specbar;
+
+import java.awt.Color;
+
+/**
+ * Immutable snapshot of every config value the overlay needs to draw a frame.
+ * Built once per config change so rendering never goes through the config proxy.
+ * A selected color preset is resolved here, leaving the custom color config untouched.
+ */
+public final class SpecBarPalette
+{
+    private final Color hoverAreaColor;
+    private final Color hoverBorderColor;
+    private final Color clickAreaColor;
+    private final Color clickBorderColor;
+    private final Color idleAreaColor;
+    private final Color idleBorderColor;
+    private final Color insufficientAreaColor;
+    private final Color insufficientBorderColor;
+    // The spec bar's hover and click colors unless the orbs have their own
+    private final Color orbHoverAreaColor;
+    private final Color orbHoverBorderColor;
+    private final Color orbClickAreaColor;
+    private final Color orbClickBorderColor;
+    private final boolean hoverEffectEnabled;
+    private final boolean clickEffectEnabled;
+    private final boolean idleBorderEnabled;
+    private final boolean instantClickEnabled;
+    private final boolean insufficientEnergyEnabled;
+    private final boolean specBarTextHidden;
+    private final int highlightedTargets;
+    private final SpecBarConfig.RegenDisplay regenDisplay;
+    private final SpecBarTransitions transitions;
+
+    private SpecBarPalette(SpecBarConfig config)
+    {
+        Color[] preset = SpecBarPresets.colors(config.colorPreset());
+        if (preset != null)
+        {
+            hoverAreaColor = preset[SpecBarPresets.HOVER_AREA];
+            hoverBorderColor = preset[SpecBarPresets.HOVER_BORDER];
+            clickAreaColor = preset[SpecBarPresets.CLICK_AREA];
+            clickBorderColor = preset[SpecBarPresets.CLICK_BORDER];
+            idleAreaColor = preset[SpecBarPresets.IDLE_AREA];
+            idleBorderColor = preset[SpecBarPresets.IDLE_BORDER];
+            insufficientAreaColor = preset[SpecBarPresets.INSUFFICIENT_AREA];
+            insufficientBorderColor = preset[SpecBarPresets.INSUFFICIENT_BORDER];
+        }
+        else
+        {
+            hoverAreaColor = config.hoverAreaColor();
+            hoverBorderColor = config.hoverBorderColor();
+            clickAreaColor = config.clickAreaColor();
+            clickBorderColor = config.clickBorderColor();
+            idleAreaColor = config.idleAreaColor();
+            idleBorderColor = config.idleBorderColor();
+            insufficientAreaColor = config.insufficientEnergyAreaColor();
+            insufficientBorderColor = config.insufficientEnergyBorderColor();
+        }
+        if (config.customOrbColors())
+        {
+            orbHoverAreaColor = config.orbHoverAreaColor();
+            orbHoverBorderColor = config.orbHoverBorderColor();
+            orbClickAreaColor = config.orbClickAreaColor();
+            orbClickBorderColor = config.orbClickBorderColor();
+        }
+        else
+        {
+            orbHoverAreaColor = hoverAreaColor;
+            orbHoverBorderColor = hoverBorderColor;
+            orbClickAreaColor = clickAreaColor;
+            orbClickBorderColor = clickBorderColor;
+        }
+        hoverEffectEnabled = config.enableHoverEffect();
+        clickEffectEnabled = config.enableClickEffect();
+        idleBorderEnabled = config.enableIdleBorder();
+        instantClickEnabled = config.enableClickEffect() && config.instantClickFeedback();
+        insufficientEnergyEnabled = config.insufficientEnergyEffect();
+        specBarTextHidden = config.hideSpecBarText();
+
+        int targets = 1 << SpecBarHitboxes.SPEC_BAR;
+        if (config.highlightSpecOrb())
+        {
+            targets |= 1 << SpecBarHitboxes.SPEC_ORB;
+        }
+        if (config.highlightOtherOrbs())
+        {
+            targets |= 1 << SpecBarHitboxes.PRAYER_ORB | 1 << SpecBarHitboxes.RUN_ORB;
+        }
+        highlightedTargets = targets;
+        regenDisplay = config.regenDisplay();
+        transitions = SpecBarTransitions.from(config);
+    }
+
+    static SpecBarPalette from(SpecBarConfig config)
+    {
+        return new SpecBarPalette(config);
+    }
+
+    public Color getHoverAreaColor()
+    {
+        return hoverAreaColor;
+    }
+
+    public Color getHoverBorderColor()
+    {
+        return hoverBorderColor;
+    }
+
+    public Color getClickAreaColor()
+    {
+        return clickAreaColor;
+    }
+
+    public Color getClickBorderColor()
+    {
+        return clickBorderColor;
+    }
+
+    public Color getIdleAreaColor()
+    {
+        return idleAreaColor;
+    }
+
+    public Color getIdleBorderColor()
+    {
+        return idleBorderColor;
+    }
+
+    public Color getInsufficientAreaColor()
+    {
+        return insufficientAreaColor;
+    }
+
+    public Color getInsufficientBorderColor()
+    {
+        return insufficientBorderColor;
+    }
+
+    /**
+     * The fill color of a {@link SpecBarHitboxes} target in a {@link SpecBarSpriteCache} state.
+     */
+    Color getAreaColor(int target, int state)
+    {
+        boolean orb = target != SpecBarHitboxes.SPEC_BAR;
+        switch (state)
+        {
+            case SpecBarSpriteCache.STATE_CLICK:
+                return orb ? orbClickAreaColor : clickAreaColor;
+            case SpecBarSpriteCache.STATE_INSUFFICIENT:
+                return insufficientAreaColor;
+            case SpecBarSpriteCache.STATE_HOVER:
+                return orb ? orbHoverAreaColor : hoverAreaColor;
+            default:
+                return idleAreaColor;
+        }
+    }
+
+    /**
+     * The border color of a {@link SpecBarHitboxes} target in a {@link SpecBarSpriteCache} state.
+     */
+    Color getBorderColor(int target, int state)
+    {
+        boolean orb = target != SpecBarHitboxes.SPEC_BAR;
+        switch (state)
+        {
+            case SpecBarSpriteCache.STATE_CLICK:
+                return orb ? orbClickBorderColor : clickBorderColor;
+            case SpecBarSpriteCache.STATE_INSUFFICIENT:
+                return insufficientBorderColor;
+            case SpecBarSpriteCache.STATE_HOVER:
+                return orb ? orbHoverBorderColor : hoverBorderColor;
+            default:
+                return idleBorderColor;
+        }
+    }
+
+    public boolean isHoverEffectEnabled()
+    {
+        return hoverEffectEnabled;
+    }
+
+    public boolean isClickEffectEnabled()
+    {
+        return clickEffectEnabled;
+    }
+
+    public boolean isIdleBorderEnabled()
+    {
+        return idleBorderEnabled;
+    }
+
+    /**
+     * Whether a left press on a spec button shows the click before the menu action confirms it.
+     */
+    public boolean isInstantClickEnabled()
+    {
+        return instantClickEnabled;
+    }
+
+    /**
+     * Whether a spec click the weapon does not have the energy for is shown as such straight away.
+     */
+    public boolean isInsufficientEnergyEnabled()
+    {
+        return insufficientEnergyEnabled;
+    }
+
+    public boolean isSpecBarTextHidden()
+    {
+        return specBarTextHidden;
+    }
+
+    /**
+     * Bitmask of the {@link SpecBarHitboxes} targets to hit-test and highlight.
+     */
+    public int getHighlightedTargets()
+    {
+        return highlightedTargets;
+    }
+
+    public SpecBarConfig.RegenDisplay getRegenDisplay()
+    {
+        return regenDisplay;
+    }
+
+    SpecBarTransitions getTransitions()
+    {
+        return transitions;
+    }
+}
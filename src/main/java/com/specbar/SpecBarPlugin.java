@@ -1,26 +1,48 @@
 package com.specbar;
 
+import com.google.inject.Binder;
 import com.google.inject.Provides;
 import lombok.extern.slf4j.Slf4j;
 import net.runelite.api.ChatMessageType;
 import net.runelite.api.Client;
+import net.runelite.api.EquipmentInventorySlot;
+import net.runelite.api.Item;
+import net.runelite.api.ItemContainer;
 import net.runelite.api.Player;
 import net.runelite.api.events.AnimationChanged;
+import net.runelite.api.events.BeforeRender;
+import net.runelite.api.events.CanvasSizeChanged;
 import net.runelite.api.events.ChatMessage;
 import net.runelite.api.events.ClientTick;
+import net.runelite.api.events.CommandExecuted;
+import net.runelite.api.events.GameTick;
 import net.runelite.api.events.GraphicChanged;
+import net.runelite.api.events.ItemContainerChanged;
 import net.runelite.api.events.MenuOptionClicked;
-import net.runelite.api.gameval.InterfaceID;
+import net.runelite.api.events.VarClientIntChanged;
+import net.runelite.api.events.VarbitChanged;
+import net.runelite.api.events.WidgetClosed;
+import net.runelite.api.events.WidgetLoaded;
+import net.runelite.api.gameval.InventoryID;
+import net.runelite.api.gameval.ItemID;
+import net.runelite.api.gameval.VarClientID;
+import net.runelite.api.gameval.VarPlayerID;
 import net.runelite.api.widgets.Widget;
+import net.runelite.client.RuneLite;
+import net.runelite.client.callback.ClientThread;
 import net.runelite.client.config.ConfigManager;
 import net.runelite.client.eventbus.Subscribe;
 import net.runelite.client.events.ConfigChanged;
+import net.runelite.client.input.MouseManager;
 import net.runelite.client.plugins.Plugin;
 import net.runelite.client.plugins.PluginDescriptor;
 import net.runelite.client.ui.overlay.OverlayManager;
 
 import javax.inject.Inject;
 import java.awt.*;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
 
 @Slf4j
 @PluginDescriptor(
@@ -36,35 +58,137 @@ public class SpecBarPlugin extends Plugin
     @Inject
     private SpecBarConfig config;
 
-    @Inject
-    private ConfigManager configManager;
-
     @Inject
     private OverlayManager overlayManager;
 
     @Inject
     private SpecBarOverlay specBarOverlay;
 
-    private boolean isHovering = false;
-    private boolean isClicked = false;
-    private int tickCounter = 0;
+    @Inject
+    private MouseManager mouseManager;
+
+    @Inject
+    private SpecBarMouseListener mouseListener;
+
+    @Inject
+    private SpecBarLayout layout;
+
+    @Inject
+    private SpecBarLatency latency;
+
+    @Inject
+    private SpecBarLatencyOverlay latencyOverlay;
+
+    @Inject
+    private SpecBarClock clock;
+
+    @Inject
+    private ClientThread clientThread;
+
+    @Inject
+    private SpecBarRegenTracker regen;
+
+    @Inject
+    private SpecBarFrameBudget budget;
+
+    @Inject
+    private SpecBarFlightRecorder flightRecorder;
+
+    @Inject
+    private SpecBarRegenOverlay regenOverlay;
+
+    // Click and hover lifecycle; a single int read gives the current state
+    private final ClickStateMachine clickState = new ClickStateMachine();
     private int lastSpecialAttackEnergy = -1; // Track spec energy to detect usage
-    private long lastClickClearTime = 0; // Track when click state was cleared
-    private static final long HOVER_SUPPRESS_DURATION_MS = 300; // Suppress hover for 300ms after click clear
+    private int lastSpecialAttackEnabled = -1; // Track the spec toggle, which the server turns off once the spec fires
+    private int specDisarmedTick = -1; // Tick the toggle dropped during a pending click; resolved once that tick is over
     
     // Enhanced special attack detection
-    private long lastSpecClickTime = 0; // Track when spec bar was clicked
-    private static final long SPEC_DETECTION_WINDOW_MS = 3000; // 3 second window to detect spec usage after click
+    private final SpecIdTable specIds = SpecIdTable.load(); // Spec animation and graphic IDs for every spec weapon
+    private final SpecCostTable specCosts = SpecCostTable.load(); // Spec energy cost per weapon item ID
+    private int weaponSpecCost = SpecCostTable.UNKNOWN; // Of the wielded weapon, in tenths of a percent; client thread only
+    private boolean seeded = false; // Whether the first game tick has read the current varps and equipment
     
-    // Widget caching for performance
-    private Widget cachedSpecBarWidget = null;
-    private long lastWidgetSearchTime = 0;
-    private static final long WIDGET_CACHE_DURATION_MS = 10000; // Cache for 10 seconds
+    private static final String STRETCHED_MODE_CONFIG_GROUP = "stretchedmode";
+
+    // A press reaches MenuOptionClicked on the next client cycle; one that has not after this many never will
+    private static final int PROVISIONAL_CLICK_CYCLES = 5;
+
+    // Last cursor position: written by the mouse listener (AWT thread), read by the client thread
+    private volatile int mouseX = -1;
+    private volatile int mouseY = -1;
+    // Set instead of rechecking the hover per mouse event while degraded to LEVEL_SLOW_HOVER
+    private volatile boolean hoverDirty;
+
+    // Spec bar text hiding: the flag is set whenever the game may have rewritten the text, the rest is client thread only
+    private volatile boolean specBarTextDirty;
+    private Widget hiddenSpecBarWidget;
+    private String hiddenSpecBarText;
+
+    // Render settings resolved from config, republished as a whole on every config change
+    private volatile SpecBarPalette palette;
+
+    // What the overlay draws; replaced only when the visible state changes
+    private static final int RECENT_STATES = 8; // Snapshots kept for reuse: enough for every state of a click on one target
+    private final Object stateLock = new Object();
+    private final int[] renderStates = new int[SpecBarHitboxes.TARGET_COUNT]; // Guarded by stateLock
+    private final SpecBarState[] recentStates = new SpecBarState[RECENT_STATES]; // Guarded by stateLock
+    private volatile SpecBarState state = SpecBarState.EMPTY;
+
+    // SpecBarHitboxes targets: under the cursor, last clicked spec button, and a prayer/run orb click shown until the next tick
+    private volatile int hoveredTarget = SpecBarHitboxes.NONE;
+    private volatile int clickedTarget = SpecBarHitboxes.NONE;
+    private volatile int flashedTarget = SpecBarHitboxes.NONE;
+    private int flashedTick;
+
+    // Spec button pressed but not yet confirmed by a menu action; set from the mouse listener
+    private volatile int provisionalTarget = SpecBarHitboxes.NONE;
+    private volatile int provisionalCycle;
+    private volatile long provisionalNanos;
+    private long provisionalFrameNanos; // Client thread only; 0 until a frame shows the provisional click
+
+    // Non-null only while "Record Sessions" is enabled
+    private volatile SpecBarSessionRecorder sessionRecorder;
+    private static final File SESSION_DIR = new File(RuneLite.RUNELITE_DIR, "spec-bar-utilities/sessions");
+
+    // Flight recorder file and ::specdump output; records are only kept while "Flight Recorder" is enabled
+    private volatile boolean flightRecording;
+    private static final File FLIGHT_RECORDER_DIR = new File(RuneLite.RUNELITE_DIR, "spec-bar-utilities");
+    private static final String DUMP_COMMAND = "specdump";
+    private static final int DEFAULT_DUMP_SECONDS = 60;
+
+    @Override
+    public void configure(Binder binder)
+    {
+        binder.bind(SpecBarClock.class).toInstance(SpecBarClock.SYSTEM);
+    }
 
     @Override
     protected void startUp() throws Exception
     {
+        rebuildPalette();
         overlayManager.add(specBarOverlay);
+        if (config.showLatencyOverlay())
+        {
+            overlayManager.add(latencyOverlay);
+        }
+        if (config.regenDisplay() != SpecBarConfig.RegenDisplay.OFF)
+        {
+            overlayManager.add(regenOverlay);
+        }
+        regen.setThreshold(config.regenThreshold());
+        budget.setBudgetMicros(config.frameBudget());
+        mouseManager.registerMouseListener(mouseListener);
+        if (config.flightRecorder())
+        {
+            startFlightRecorder();
+        }
+        SpecBarJfr.start();
+        layout.invalidate();
+        if (config.recordSessions())
+        {
+            startRecording();
+        }
         log.info("Spec Bar Utilities started!");
     }
 
@@ -72,111 +196,475 @@ public class SpecBarPlugin extends Plugin
     protected void shutDown() throws Exception
     {
         overlayManager.remove(specBarOverlay);
-        isHovering = false;
-        isClicked = false;
+        overlayManager.remove(latencyOverlay);
+        overlayManager.remove(regenOverlay);
+        mouseManager.unregisterMouseListener(mouseListener);
+        clientThread.invokeLater(this::restoreSpecBarText);
+        stopRecording();
+        stopFlightRecorder();
+        SpecBarJfr.stop();
+        latency.reset();
+        regen.reset();
+        budget.reset();
+        layout.clear();
+        clickState.reset();
+        hoveredTarget = SpecBarHitboxes.NONE;
+        clickedTarget = SpecBarHitboxes.NONE;
+        flashedTarget = SpecBarHitboxes.NONE;
+        provisionalTarget = SpecBarHitboxes.NONE;
+        publishState();
+        lastSpecialAttackEnergy = -1;
+        lastSpecialAttackEnabled = -1;
+        specDisarmedTick = -1;
+        weaponSpecCost = SpecCostTable.UNKNOWN;
+        seeded = false;
         log.info("Spec Bar Utilities stopped!");
     }
 
     @Subscribe
     public void onClientTick(ClientTick event)
     {
-        // Track special attack energy to detect when spec is used
-        int currentSpecEnergy = client.getVarpValue(301); // Varp 301 is special attack energy
-        
-        // If we're in clicked state and spec energy decreased, the spec was used
-        if (isClicked && lastSpecialAttackEnergy != -1 && currentSpecEnergy < lastSpecialAttackEnergy)
+        long start = budget.start(SpecBarFrameBudget.CLIENT_TICK);
+        try
         {
-            clearClickState(); // Remove click effect when spec is actually used
+            clientTick();
         }
-        
-        lastSpecialAttackEnergy = currentSpecEnergy;
-        
-        // Throttle hover detection to every 3rd tick for performance (still responsive at ~50fps)
-        tickCounter++;
-        if (tickCounter % 3 != 0)
+        finally
         {
-            return;
+            budget.end(SpecBarFrameBudget.CLIENT_TICK, start);
         }
-        
-        // Check if mouse is hovering over the special attack bar
-        Widget specBarWidget = getCachedSpecialAttackWidget();
-        if (specBarWidget != null && !specBarWidget.isHidden())
+
+        if (budget.frame())
         {
-            // Hide spec bar text if option is enabled
-            if (config.hideSpecBarText())
+            publishState();
+        }
+    }
+
+    private void clientTick()
+    {
+        SpecBarSessionRecorder recorder = sessionRecorder;
+        if (recorder != null)
+        {
+            recorder.clientTick(client.getTickCount());
+        }
+
+        int provisional = provisionalTarget;
+        if (provisional != SpecBarHitboxes.NONE && client.getGameCycle() - provisionalCycle > PROVISIONAL_CLICK_CYCLES)
+        {
+            // The press did not turn into a menu action, e.g. it was swallowed by a drag
+            rollBackProvisionalClick(provisional);
+        }
+
+        // Hover is recomputed by the mouse listener; ticks only pick up layout changes
+        if (layout.refreshIfInvalid())
+        {
+            if (recorder != null)
+            {
+                recordLayout(recorder);
+            }
+            // A (re)loaded combat tab comes with freshly written text
+            specBarTextDirty = true;
+            hoverDirty = true;
+        }
+
+        if (hoverDirty)
+        {
+            hoverDirty = false;
+            updateHover();
+        }
+    }
+
+    @Subscribe
+    public void onBeforeRender(BeforeRender event)
+    {
+        // Runs after this cycle's scripts, so text they just wrote is blanked before it is ever drawn
+        if (specBarTextDirty)
+        {
+            specBarTextDirty = false;
+            if (palette.isSpecBarTextHidden())
+            {
+                hideSpecBarText();
+            }
+        }
+    }
+
+    @Subscribe
+    public void onGameTick(GameTick event)
+    {
+        // Windows are counted in game ticks so lag spikes stretch them along with the server
+        int tick = client.getTickCount();
+        SpecBarSessionRecorder recorder = sessionRecorder;
+        if (recorder != null)
+        {
+            recorder.gameTick(tick);
+        }
+
+        if (specDisarmedTick != -1 && tick > specDisarmedTick)
+        {
+            specDisarmedTick = -1;
+            if (isClickPending())
+            {
+                // Nothing confirmed the spec in the tick its toggle dropped, so it was turned off
+                latency.clickCancelled();
+                fireClickEvent(ClickStateMachine.EVENT_CANCEL, tick);
+            }
+        }
+
+        // An armed spec fires on the next hit however long that takes, so its click stays shown until the toggle drops
+        if (clickState.isTimedOut(tick) && lastSpecialAttackEnabled != 1)
+        {
+            SpecBarJfr.timedOut(latency.sinceClick(), tick - clickState.getStateTick(), lastSpecialAttackEnergy);
+            // Clicks the server never resolved count towards the timeout histogram
+            latency.clickTimedOut();
+            fireClickEvent(ClickStateMachine.EVENT_TIMEOUT, tick);
+        }
+        else if (clickState.isSettled(tick))
+        {
+            fireClickEvent(ClickStateMachine.EVENT_SETTLE, tick);
+        }
+
+        if (flashedTarget != SpecBarHitboxes.NONE && tick > flashedTick)
+        {
+            flashedTarget = SpecBarHitboxes.NONE;
+            publishState();
+        }
+
+        if (!seeded)
+        {
+            // Enabled mid-session: no varp or equipment event will arrive until something changes
+            seeded = true;
+            weaponSpecCost = weaponSpecCost(client.getItemContainer(InventoryID.WORN));
+            if (lastSpecialAttackEnergy == -1)
             {
-                String currentText = specBarWidget.getText();
-                if (currentText != null && !currentText.isEmpty())
-                {
-                    specBarWidget.setText("");
-                }
+                lastSpecialAttackEnergy = client.getVarpValue(VarPlayerID.SA_ENERGY);
             }
+            if (lastSpecialAttackEnabled == -1)
+            {
+                lastSpecialAttackEnabled = client.getVarpValue(VarPlayerID.SA_ATTACK);
+            }
+        }
+
+        if (isRegenShown())
+        {
+            if (!regen.hasEnergy())
+            {
+                // Shown mid-session, or just switched on
+                regen.setLightbearer(isLightbearerEquipped(client.getItemContainer(InventoryID.WORN)), tick);
+                regen.energyChanged(client.getVarpValue(VarPlayerID.SA_ENERGY), tick);
+            }
+            regen.tick(tick);
+        }
+    }
+
+    /**
+     * Whether the regen tracker is fed at all; it sits idle while the ETA is not shown.
+     */
+    private boolean isRegenShown()
+    {
+        return palette.getRegenDisplay() != SpecBarConfig.RegenDisplay.OFF;
+    }
+
+    @Subscribe
+    public void onVarbitChanged(VarbitChanged event)
+    {
+        int varpId = event.getVarpId();
+        SpecBarSessionRecorder recorder = sessionRecorder;
+        if (recorder != null && (varpId == VarPlayerID.SA_ENERGY || varpId == VarPlayerID.SA_ATTACK))
+        {
+            recorder.varp(client.getTickCount(), varpId, event.getValue());
+        }
+
+        if (varpId == VarPlayerID.SA_ENERGY || varpId == VarPlayerID.SA_ATTACK)
+        {
+            // Both run the script that redraws the spec bar text later this cycle
+            specBarTextDirty = true;
+        }
+
+        if (varpId == VarPlayerID.SA_ENERGY)
+        {
+            int currentSpecEnergy = event.getValue();
+            if (isRegenShown())
+            {
+                regen.energyChanged(currentSpecEnergy, client.getTickCount());
+            }
+            recordFlight(SpecBarFlightRecorder.ENERGY, client.getTickCount(), lastSpecialAttackEnergy, currentSpecEnergy);
             
-            Rectangle bounds = specBarWidget.getBounds();
-            if (bounds != null)
+            // If we're in clicked state and spec energy decreased, the spec was used
+            if (isClickPending() && lastSpecialAttackEnergy != -1 && currentSpecEnergy < lastSpecialAttackEnergy)
             {
-                net.runelite.api.Point mousePos = client.getMouseCanvasPosition();
-                boolean mouseInBounds = bounds.contains(mousePos.getX(), mousePos.getY());
-                
-                // Suppress hover effect for a short time after click state is cleared
-                long currentTime = System.currentTimeMillis();
-                boolean hoverSuppressed = (currentTime - lastClickClearTime) < HOVER_SUPPRESS_DURATION_MS;
-                
-                isHovering = mouseInBounds && !hoverSuppressed;
+                confirmClick(SpecBarJfr.SOURCE_ENERGY_VARP, varpId); // Remove click effect when spec is actually used
             }
-            else
+            
+            lastSpecialAttackEnergy = currentSpecEnergy;
+        }
+        else if (varpId == VarPlayerID.SA_ATTACK)
+        {
+            int specEnabled = event.getValue();
+            
+            // The toggle dropping back to off means the spec was performed or turned off. A performed spec also
+            // drops the energy or plays its animation this tick, which confirms the click; wait for the tick to end
+            if (isClickPending() && lastSpecialAttackEnabled != -1 && specEnabled < lastSpecialAttackEnabled)
             {
-                isHovering = false;
+                specDisarmedTick = client.getTickCount();
             }
+            
+            lastSpecialAttackEnabled = specEnabled;
         }
-        else
+    }
+
+    @Subscribe
+    public void onItemContainerChanged(ItemContainerChanged event)
+    {
+        if (event.getContainerId() == InventoryID.WORN)
         {
-            isHovering = false;
+            SpecBarSessionRecorder recorder = sessionRecorder;
+            if (recorder != null)
+            {
+                recordEquipment(recorder, event.getItemContainer());
+            }
+
+            // A weapon swap redraws the combat tab, spec bar text included, without touching the spec varps.
+            // It also hides the spec bar for a weapon without a special attack, and shows it again for one with
+            specBarTextDirty = true;
+            layout.invalidate();
+            if (isRegenShown())
+            {
+                regen.setLightbearer(isLightbearerEquipped(event.getItemContainer()), client.getTickCount());
+            }
+            weaponSpecCost = weaponSpecCost(event.getItemContainer());
         }
     }
 
+    private int weaponSpecCost(ItemContainer equipment)
+    {
+        Item weapon = equipment != null ? equipment.getItem(EquipmentInventorySlot.WEAPON.getSlotIdx()) : null;
+        return weapon != null ? specCosts.getCost(weapon.getId()) : SpecCostTable.UNKNOWN;
+    }
+
+    private static boolean isLightbearerEquipped(ItemContainer equipment)
+    {
+        Item ring = equipment != null ? equipment.getItem(EquipmentInventorySlot.RING.getSlotIdx()) : null;
+        return ring != null && ring.getId() == ItemID.LIGHTBEARER;
+    }
+
+    @Subscribe
+    public void onWidgetLoaded(WidgetLoaded event)
+    {
+        // Interface loads cover the combat tab and the toplevel swap on resizable mode changes
+        layout.invalidate();
+    }
+
+    @Subscribe
+    public void onWidgetClosed(WidgetClosed event)
+    {
+        layout.invalidate();
+    }
+
+    @Subscribe
+    public void onCanvasSizeChanged(CanvasSizeChanged event)
+    {
+        layout.invalidate();
+    }
+
+    @Subscribe
+    public void onVarClientIntChanged(VarClientIntChanged event)
+    {
+        // Switching side panel tabs shows or hides the combat tab without any widget load
+        if (event.getIndex() == VarClientID.TOPLEVEL_PANEL)
+        {
+            layout.invalidate();
+        }
+    }
+
+    /**
+     * Called by {@link SpecBarMouseListener} whenever the cursor moves over, or leaves, the canvas.
+     * Coordinates are canvas coordinates; -1 means the cursor is outside the canvas.
+     */
+    void onMouseMoved(int x, int y)
+    {
+        mouseX = x;
+        mouseY = y;
+
+        SpecBarSessionRecorder recorder = sessionRecorder;
+        if (recorder != null)
+        {
+            recorder.mouse(client.getTickCount(), x, y);
+        }
+
+        // Over budget, fold every move in a frame into one recheck on the next client tick
+        if (budget.getLevel() >= SpecBarFrameBudget.LEVEL_SLOW_HOVER)
+        {
+            hoverDirty = true;
+            return;
+        }
+        updateHover();
+    }
+
+    private void updateHover()
+    {
+        int target = layout.getHitboxes().targetAt(mouseX, mouseY);
+        hoveredTarget = target;
+        fireClickEvent(SpecBarHitboxes.isSpecTarget(target) ? ClickStateMachine.EVENT_HOVER_ENTER : ClickStateMachine.EVENT_HOVER_EXIT,
+            client.getTickCount());
+    }
+
     @Subscribe
     public void onMenuOptionClicked(MenuOptionClicked event)
     {
-        // Optimized click detection with minimal string operations
-        String menuTarget = event.getMenuTarget();
-        
-        // Fast path: check if we're hovering and any relevant click happens
-        if (isHovering)
+        long start = budget.start(SpecBarFrameBudget.MENU_OPTION_CLICKED);
+        try
+        {
+            menuOptionClicked(event);
+        }
+        finally
         {
-            String menuOption = event.getMenuOption();
-            if (menuOption != null && !menuOption.equals("Walk here") && !menuOption.equals("Examine"))
+            budget.end(SpecBarFrameBudget.MENU_OPTION_CLICKED, start);
+        }
+    }
+
+    private void menuOptionClicked(MenuOptionClicked event)
+    {
+        SpecBarSessionRecorder recorder = sessionRecorder;
+        if (recorder != null)
+        {
+            recorder.menuClick(client.getTickCount(), event.getMenuAction().getId(), event.getParam1());
+        }
+
+        // Whatever the menu action is, it settles a provisional click from the mouse press before it
+        int pressedTarget = provisionalTarget;
+        boolean provisional = pressedTarget != SpecBarHitboxes.NONE;
+        provisionalTarget = SpecBarHitboxes.NONE;
+
+        int click = SpecBarClickClassifier.classify(event.getMenuAction(), event.getParam1());
+        if (click == SpecBarClickClassifier.CLICK_OTHER)
+        {
+            if (provisional)
             {
-                // If already clicked, instantly destroy the clicked box
-                if (isClicked)
-                {
-                    clearClickState();
-                }
-                else
-                {
-                    triggerClickState();
-                }
-                return;
+                // The press went to another menu entry, e.g. a shift-click or a swapped left-click option
+                rollBackProvisionalClick(pressedTarget);
             }
+            return;
         }
-        
-        // Check for specific special attack clicks (reduced string comparisons)
-        if (menuTarget != null && menuTarget.length() < 50) // Performance: skip very long targets
+
+        recordFlight(SpecBarFlightRecorder.MENU_CLICK, client.getTickCount(), click, lastSpecialAttackEnergy);
+
+        if (click == SpecBarClickClassifier.CLICK_PRAYER_ORB || click == SpecBarClickClassifier.CLICK_RUN_ORB)
         {
-            if (menuTarget.contains("Special Attack") || 
-                (menuTarget.contains("%") && menuTarget.length() < 30))
+            // Nothing to wait for from the server; show the click until the next game tick
+            flashedTarget = click == SpecBarClickClassifier.CLICK_PRAYER_ORB ? SpecBarHitboxes.PRAYER_ORB : SpecBarHitboxes.RUN_ORB;
+            flashedTick = client.getTickCount();
+            provisionalFrameNanos = 0;
+            publishState();
+            return;
+        }
+
+        clickedTarget = click == SpecBarClickClassifier.CLICK_SPEC_ORB ? SpecBarHitboxes.SPEC_ORB : SpecBarHitboxes.SPEC_BAR;
+        // Clicking the spec bar or orb again while armed toggles the spec back off
+        int previousState = fireClickEvent(ClickStateMachine.EVENT_CLICK, client.getTickCount());
+        SpecBarJfr.click(clickedTarget, previousState == ClickStateMachine.PENDING,
+            provisional ? clock.nanoTime() - provisionalNanos : 0, lastSpecialAttackEnergy);
+        if (previousState == ClickStateMachine.PENDING)
+        {
+            latency.clickCancelled();
+        }
+        else if (isSpecUnaffordable())
+        {
+            // The server is going to answer "not enough power"; show it now instead of a round trip later
+            latency.clickCancelled();
+            recordFlight(SpecBarFlightRecorder.SPEC_FAILED, client.getTickCount(), SpecBarFlightRecorder.PREDICTED,
+                lastSpecialAttackEnergy);
+            SpecBarJfr.failed(0, lastSpecialAttackEnergy);
+            fireClickEvent(ClickStateMachine.EVENT_FAIL, client.getTickCount());
+        }
+        else if (provisional)
+        {
+            // Measure from the press, including a frame already drawn from it
+            latency.clickStarted(provisionalNanos);
+            if (provisionalFrameNanos != 0)
             {
-                String menuOption = event.getMenuOption();
-                if (menuOption != null && (menuOption.equals("Use") || menuOption.equals("Activate")))
-                {
-                    triggerClickState();
-                }
+                latency.clickFrameRendered(provisionalFrameNanos);
             }
         }
+        else
+        {
+            latency.clickStarted();
+        }
+        provisionalFrameNanos = 0;
+    }
+
+    /**
+     * Called by {@link SpecBarMouseListener} for a left button press. With instant click feedback on, a
+     * press on a spec button shows the click right away, ahead of the menu action that confirms it.
+     */
+    void onMousePressed(int x, int y)
+    {
+        int target = layout.getHitboxes().targetAt(x, y);
+        if (!SpecBarHitboxes.isSpecTarget(target))
+        {
+            return;
+        }
+
+        // Recorded whatever the feedback setting, so a replay can take the provisional path either way
+        SpecBarSessionRecorder recorder = sessionRecorder;
+        if (recorder != null)
+        {
+            recorder.mousePress(client.getTickCount(), x, y);
+        }
+
+        SpecBarPalette palette = this.palette;
+        // A press while a click is pending toggles the spec off, so there is nothing to show early
+        if (palette == null || !palette.isInstantClickEnabled() || client.isMenuOpen()
+            || clickState.getState() == ClickStateMachine.PENDING)
+        {
+            return;
+        }
+
+        provisionalNanos = clock.nanoTime();
+        provisionalCycle = client.getGameCycle();
+        provisionalTarget = target;
+        publishState();
+    }
+
+    /**
+     * Called by the overlay for every frame drawn with a spec button in the click state.
+     */
+    void clickFrameRendered()
+    {
+        if (provisionalTarget != SpecBarHitboxes.NONE)
+        {
+            // Not a click yet as far as the latency is concerned; kept for when it is confirmed
+            if (provisionalFrameNanos == 0)
+            {
+                provisionalFrameNanos = clock.nanoTime();
+            }
+            return;
+        }
+        latency.clickFrameRendered();
+    }
+
+    private void rollBackProvisionalClick(int target)
+    {
+        recordFlight(SpecBarFlightRecorder.ROLLBACK, client.getTickCount(), target, lastSpecialAttackEnergy);
+        provisionalTarget = SpecBarHitboxes.NONE;
+        provisionalFrameNanos = 0;
+        publishState();
     }
     
     @Subscribe
     public void onAnimationChanged(AnimationChanged event)
+    {
+        long start = budget.start(SpecBarFrameBudget.ANIMATION_CHANGED);
+        try
+        {
+            animationChanged(event);
+        }
+        finally
+        {
+            budget.end(SpecBarFrameBudget.ANIMATION_CHANGED, start);
+        }
+    }
+
+    private void animationChanged(AnimationChanged event)
     {
         // Only process player animations
         if (!(event.getActor() instanceof Player))
@@ -192,17 +680,23 @@ public class SpecBarPlugin extends Plugin
             return;
         }
         
+        int animationId = player.getAnimation();
+        SpecBarSessionRecorder recorder = sessionRecorder;
+        if (recorder != null)
+        {
+            recorder.animation(client.getTickCount(), animationId);
+        }
+        recordFlight(SpecBarFlightRecorder.ANIMATION, client.getTickCount(), animationId, lastSpecialAttackEnergy);
+        
         // If we're in clicked state and within detection window, check for special attack animations
-        if (isClicked && isWithinSpecDetectionWindow())
+        if (isClickPending())
         {
-            int animationId = player.getAnimation();
             
             // Check if this is a special attack animation
-            if (isSpecialAttackAnimation(animationId))
+            if (specIds.isSpecAnimation(animationId))
             {
                 // Special attack animation detected - clear the click state
-                clearClickState();
-                log.debug("Special attack animation detected: {}", animationId);
+                confirmClick(SpecBarJfr.SOURCE_ANIMATION, animationId);
             }
         }
     }
@@ -216,12 +710,22 @@ public class SpecBarPlugin extends Plugin
             return;
         }
         
-        // If we're in clicked state and within detection window, any graphic change might indicate spec usage
-        if (isClicked && isWithinSpecDetectionWindow())
+        int graphicId = event.getActor().getGraphic();
+        SpecBarSessionRecorder recorder = sessionRecorder;
+        if (recorder != null)
         {
-            // For now, we'll rely primarily on animation detection
-            // Graphics can be added later with proper IDs if needed
-            log.debug("Graphic changed during spec detection window");
+            recorder.graphic(client.getTickCount(), graphicId);
+        }
+        recordFlight(SpecBarFlightRecorder.GRAPHIC, client.getTickCount(), graphicId, lastSpecialAttackEnergy);
+        
+        // If we're in clicked state and within detection window, check for special attack graphics
+        if (isClickPending())
+        {
+            if (specIds.isSpecGraphic(graphicId))
+            {
+                // Special attack graphic detected - clear the click state
+                confirmClick(SpecBarJfr.SOURCE_GRAPHIC, graphicId);
+            }
         }
     }
     
@@ -234,371 +738,432 @@ public class SpecBarPlugin extends Plugin
             return;
         }
         
+        SpecBarSessionRecorder recorder = sessionRecorder;
+        if (recorder != null)
+        {
+            recorder.chat(client.getTickCount(), event.getType().getType(), event.getMessage());
+        }
+        
         // Check for the "not enough power" message when in clicked state
-        if (isClicked && event.getMessage().equals("You don't have enough power left."))
+        if (isClickPending() && event.getMessage().equals("You don't have enough power left."))
         {
             // Failed special attack attempt - clear the click state immediately
-            clearClickState();
-            log.debug("Special attack failed - not enough power");
+            recordFlight(SpecBarFlightRecorder.SPEC_FAILED, client.getTickCount(), 0, lastSpecialAttackEnergy);
+            SpecBarJfr.failed(latency.sinceClick(), lastSpecialAttackEnergy);
+            resolveClick(ClickStateMachine.EVENT_FAIL);
         }
     }
 
-    private void updateSpecBarState()
+    /**
+     * True when the insufficient energy effect is on, both the spec energy and the wielded weapon's cost
+     * are known, and the energy falls short.
+     */
+    private boolean isSpecUnaffordable()
+    {
+        return palette.isInsufficientEnergyEnabled() && weaponSpecCost != SpecCostTable.UNKNOWN
+            && lastSpecialAttackEnergy != -1 && lastSpecialAttackEnergy < weaponSpecCost;
+    }
+
+    /**
+     * True from a spec click until it is confirmed, rejected or the detection window runs out.
+     */
+    private boolean isClickPending()
+    {
+        return clickState.getState() == ClickStateMachine.PENDING;
+    }
+    
+    /**
+     * Ends a pending click because the server used the spec; {@code id} is the varp, animation or graphic
+     * that showed it.
+     */
+    private void confirmClick(String source, int id)
+    {
+        SpecBarJfr.confirmed(source, id, latency.sinceClick(), lastSpecialAttackEnergy);
+        resolveClick(ClickStateMachine.EVENT_CONFIRM);
+    }
+
+    /**
+     * Ends a pending click in response to the server using ({@code EVENT_CONFIRM}) or rejecting
+     * ({@code EVENT_FAIL}) the spec. Hover stays suppressed until the state settles on the next tick.
+     */
+    private void resolveClick(int event)
+    {
+        latency.clickConfirmed();
+        fireClickEvent(event, client.getTickCount());
+    }
+
+    /**
+     * Moves the click state machine and republishes the render snapshot.
+     *
+     * @return the state before the event
+     */
+    private int fireClickEvent(int event, int tick)
     {
-        // Use cached widget detection for performance
-        Widget specBarWidget = getCachedSpecialAttackWidget();
-        if (specBarWidget == null || specBarWidget.isHidden())
+        int previousState = clickState.fire(event, tick);
+        if (event != ClickStateMachine.EVENT_HOVER_ENTER && event != ClickStateMachine.EVENT_HOVER_EXIT)
+        {
+            // Everything but hover is fired on the client thread, the flight recorder's only writer
+            recordFlight(SpecBarFlightRecorder.CLICK_STATE, tick,
+                event << 16 | previousState << 8 | clickState.getState(), lastSpecialAttackEnergy);
+        }
+        publishState();
+        return previousState;
+    }
+
+    @Subscribe
+    public void onCommandExecuted(CommandExecuted event)
+    {
+        if (!DUMP_COMMAND.equalsIgnoreCase(event.getCommand()))
         {
-            isHovering = false;
             return;
         }
 
-        net.runelite.api.Point mousePos = client.getMouseCanvasPosition();
-        Rectangle specBarBounds = specBarWidget.getBounds();
-        
-        if (mousePos != null && specBarBounds != null)
+        int seconds = DEFAULT_DUMP_SECONDS;
+        String[] arguments = event.getArguments();
+        if (arguments.length > 0)
         {
-            Point awtMousePos = new Point(mousePos.getX(), mousePos.getY());
-            isHovering = specBarBounds.contains(awtMousePos);
+            try
+            {
+                seconds = Math.max(1, Integer.parseInt(arguments[0]));
+            }
+            catch (NumberFormatException e)
+            {
+                client.addChatMessage(ChatMessageType.GAMEMESSAGE, "", "Usage: ::" + DUMP_COMMAND + " [seconds]", null);
+                return;
+            }
         }
-        else
+
+        if (!flightRecording)
         {
-            isHovering = false;
+            client.addChatMessage(ChatMessageType.GAMEMESSAGE, "",
+                "The spec bar flight recorder is disabled; enable Flight Recorder in the plugin's Debug settings", null);
+            return;
         }
+
+        File file = new File(FLIGHT_RECORDER_DIR, "specdump-" + System.currentTimeMillis() + ".txt");
+        flightRecorder.dump(seconds, file, message ->
+            clientThread.invokeLater(() -> client.addChatMessage(ChatMessageType.GAMEMESSAGE, "", message, null)));
     }
-    
-    private Widget getCachedSpecialAttackWidget()
+
+    /**
+     * Publishes a new {@link SpecBarState} if any target's render state, the bounds or the palette
+     * changed. Called from the client thread, the mouse listener and config events; the lock makes
+     * sure the last snapshot published reflects the latest click state.
+     */
+    private void publishState()
     {
-        long currentTime = System.currentTimeMillis();
-        
-        // Check if we have a valid cached widget
-        if (cachedSpecBarWidget != null && 
-            currentTime - lastWidgetSearchTime < WIDGET_CACHE_DURATION_MS)
+        synchronized (stateLock)
         {
-            // Verify cached widget is still valid
-            if (!cachedSpecBarWidget.isHidden())
+            SpecBarPalette palette = this.palette;
+            SpecBarHitboxes hitboxes = layout.getHitboxes();
+            int click = clickState.getState();
+            for (int target = 0; target < SpecBarHitboxes.TARGET_COUNT; target++)
             {
-                return cachedSpecBarWidget;
+                renderStates[target] = renderStateOf(target, click, hitboxes.getBounds(target), palette);
             }
+            state = SpecBarState.next(state, renderStates, hitboxes, palette, recentStates);
         }
-        
-        // Cache expired or invalid
-        Widget specBarWidget = client.getWidget(InterfaceID.CombatInterface.SP_ATTACKBAR); // Special attack bar component
-        if (specBarWidget != null && !specBarWidget.isHidden())
-        {
-            cachedSpecBarWidget = specBarWidget;
-            lastWidgetSearchTime = currentTime;
-            return specBarWidget;
-        }
-        
-        return null;
-    }
-    
-    private boolean isWithinSpecDetectionWindow()
-    {
-        return (System.currentTimeMillis() - lastSpecClickTime) < SPEC_DETECTION_WINDOW_MS;
     }
-    
-    private boolean isSpecialAttackAnimation(int animationId)
+
+    // Priority order: Click > Hover > Idle
+    private int renderStateOf(int target, int click, Rectangle bounds, SpecBarPalette palette)
     {
-        // Verified animation IDs from RuneLite source code
-        // These are the actual special attack animations, not regular skilling animations
-        switch (animationId)
+        if (palette == null || bounds == null || bounds.isEmpty())
         {
-            // Dragon skilling tool special attacks (boost animations)
-            case 2876: // Dragon axe special attack (stat boost)
-            case 8347: // Dragon pickaxe special attack (stat boost)
-            case 1167: // Dragon harpoon special attack (stat boost)
-            
-            // Infernal tool special attacks (same as dragon variants)
-            case 2117: // Infernal axe special attack (verified from AnimationID.WOODCUTTING_INFERNAL)
-            case 8348: // Infernal pickaxe special attack
-            
-            // Crystal tool special attacks
-            case 8324: // Crystal axe special attack (verified from AnimationID.WOODCUTTING_CRYSTAL)
-            case 8789: // Crystal pickaxe special attack
-            case 8790: // Crystal harpoon special attack
-            
-            // Felling axe variants (2H axes with special attacks)
-            case 10071: // Dragon felling axe special attack
-            case 10072: // Crystal felling axe special attack
-            case 10073: // Crystal felling axe (inactive) special attack
-            case 10074: // 3rd age felling axe special attack
-            
+            return SpecBarState.NONE;
+        }
 
-                return true;
-            default:
-                return false;
+        // Both spec buttons share one click state machine, but only the one clicked shows it
+        boolean specTarget = SpecBarHitboxes.isSpecTarget(target);
+        if (specTarget && click == ClickStateMachine.FAILED && target == clickedTarget && palette.isInsufficientEnergyEnabled())
+        {
+            return SpecBarSpriteCache.STATE_INSUFFICIENT;
+        }
+        boolean clicked = specTarget
+            ? click == ClickStateMachine.PENDING && target == clickedTarget || target == provisionalTarget
+            : target == flashedTarget;
+        if (clicked && palette.isClickEffectEnabled())
+        {
+            return SpecBarSpriteCache.STATE_CLICK;
         }
-    }
 
-    private void triggerClickState()
-    {
-        isClicked = true;
-        lastSpecClickTime = System.currentTimeMillis();
-        // Click state will persist until spec is used (tracked by multiple methods)
-    }
-    
-    private void clearClickState()
-    {
-        isClicked = false;
-        lastClickClearTime = System.currentTimeMillis();
-        // Hover effect will be suppressed for HOVER_SUPPRESS_DURATION_MS
+        boolean hovered = target == hoveredTarget && (!specTarget || click == ClickStateMachine.HOVER);
+        if (hovered && palette.isHoverEffectEnabled())
+        {
+            return SpecBarSpriteCache.STATE_HOVER;
+        }
+
+        if (target == SpecBarHitboxes.SPEC_BAR && palette.isIdleBorderEnabled()
+            && budget.getLevel() < SpecBarFrameBudget.LEVEL_NO_IDLE_BORDER)
+        {
+            return SpecBarSpriteCache.STATE_IDLE;
+        }
+        return SpecBarState.NONE;
     }
 
-    public boolean isHovering()
+    /**
+     * The current {@link ClickStateMachine} state. The overlay draws from {@link #getState()} instead,
+     * which also folds in the hover target, provisional clicks and the palette.
+     */
+    public int getClickState()
     {
-        return isHovering && config.enableHoverEffect();
+        return clickState.getState();
     }
 
-    public boolean isClicked()
+    /**
+     * The latest render snapshot; a new instance only when something visible changed.
+     */
+    SpecBarState getState()
     {
-        return isClicked && config.enableClickEffect();
+        return state;
     }
 
-    // Hover state getters (integrated color+opacity)
-    public Color getHoverAreaColor()
+    public SpecBarPalette getPalette()
     {
-        return config.hoverAreaColor();
+        return palette;
     }
 
-    public Color getHoverBorderColor()
+    SpecBarLatency getLatency()
     {
-        return config.hoverBorderColor();
+        return latency;
     }
 
-    // Click state getters (integrated color+opacity)
-    public Color getClickAreaColor()
+    SpecBarFrameBudget getFrameBudget()
     {
-        return config.clickAreaColor();
+        return budget;
     }
 
-    public Color getClickBorderColor()
+    @Subscribe
+    public void onConfigChanged(ConfigChanged event)
     {
-        return config.clickBorderColor();
+        // Stretched mode rescales the canvas the widgets are laid out on
+        if (event.getGroup().equals(STRETCHED_MODE_CONFIG_GROUP))
+        {
+            layout.invalidate();
+            return;
+        }
+
+        if (!event.getGroup().equals("specbar"))
+        {
+            return;
+        }
+
+        if (event.getKey().equals("recordSessions"))
+        {
+            if (config.recordSessions())
+            {
+                startRecording();
+            }
+            else
+            {
+                stopRecording();
+            }
+        }
+
+        if (event.getKey().equals("regenDisplay"))
+        {
+            if (config.regenDisplay() != SpecBarConfig.RegenDisplay.OFF)
+            {
+                overlayManager.add(regenOverlay);
+            }
+            else
+            {
+                overlayManager.remove(regenOverlay);
+            }
+            // Starts over from the current energy on the next game tick if shown again
+            clientThread.invokeLater(regen::reset);
+        }
+
+        if (event.getKey().equals("hideSpecBarText"))
+        {
+            if (config.hideSpecBarText())
+            {
+                specBarTextDirty = true;
+            }
+            else
+            {
+                clientThread.invokeLater(this::restoreSpecBarText);
+            }
+        }
+
+        if (event.getKey().equals("flightRecorder"))
+        {
+            if (config.flightRecorder())
+            {
+                startFlightRecorder();
+            }
+            else
+            {
+                stopFlightRecorder();
+            }
+        }
+
+        if (event.getKey().equals("frameBudget"))
+        {
+            clientThread.invokeLater(() ->
+            {
+                budget.setBudgetMicros(config.frameBudget());
+                publishState();
+            });
+        }
+
+        if (event.getKey().equals("regenThreshold"))
+        {
+            regen.setThreshold(config.regenThreshold());
+        }
+
+        if (event.getKey().equals("showLatencyOverlay"))
+        {
+            if (config.showLatencyOverlay())
+            {
+                overlayManager.add(latencyOverlay);
+            }
+            else
+            {
+                overlayManager.remove(latencyOverlay);
+            }
+        }
+
+        // Presets are resolved in the palette, so a preset switch is this one rebuild rather than a config write per color
+        rebuildPalette();
     }
 
-    // Idle state getters
-    public boolean isIdleBorderEnabled()
+    /**
+     * Resolves every render setting from config once and publishes it in a single write.
+     */
+    void rebuildPalette()
     {
-        return config.enableIdleBorder();
+        palette = SpecBarPalette.from(config);
+        layout.setEnabledTargets(palette.getHighlightedTargets());
+        publishState();
     }
 
-    public Color getIdleAreaColor()
+    /**
+     * Blanks the spec bar text, remembering what the game wrote so it can be put back. Client thread only.
+     */
+    private void hideSpecBarText()
     {
-        return config.idleAreaColor();
+        Widget specBarWidget = layout.getSpecBarWidget();
+        if (specBarWidget == null)
+        {
+            return;
+        }
+
+        String text = specBarWidget.getText();
+        if (text != null && !text.isEmpty())
+        {
+            hiddenSpecBarWidget = specBarWidget;
+            hiddenSpecBarText = text;
+            specBarWidget.setText("");
+        }
     }
 
-    public Color getIdleBorderColor()
+    /**
+     * Puts back the last text {@link #hideSpecBarText()} blanked, unless the game has written new text since.
+     * Client thread only.
+     */
+    private void restoreSpecBarText()
     {
-        return config.idleBorderColor();
+        Widget widget = hiddenSpecBarWidget;
+        String text = hiddenSpecBarText;
+        hiddenSpecBarWidget = null;
+        hiddenSpecBarText = null;
+        if (widget != null && text != null && "".equals(widget.getText()))
+        {
+            widget.setText(text);
+        }
     }
 
-    // Color preset getter
-    public SpecBarConfig.ColorPreset getColorPreset()
+    /**
+     * Records the weapon and ring, the slots the spec cost prediction and the regen estimate read.
+     */
+    private void recordEquipment(SpecBarSessionRecorder recorder, ItemContainer equipment)
     {
-        return config.colorPreset();
+        Item weapon = equipment != null ? equipment.getItem(EquipmentInventorySlot.WEAPON.getSlotIdx()) : null;
+        Item ring = equipment != null ? equipment.getItem(EquipmentInventorySlot.RING.getSlotIdx()) : null;
+        recorder.equipment(client.getTickCount(), weapon != null ? weapon.getId() : -1, ring != null ? ring.getId() : -1);
     }
 
-    @Subscribe
-    public void onConfigChanged(ConfigChanged event)
+    private void recordLayout(SpecBarSessionRecorder recorder)
     {
-        if (!event.getGroup().equals("specbar"))
+        Rectangle bounds = layout.getSpecBarBounds();
+        if (bounds != null)
         {
-            return;
+            recorder.layout(client.getTickCount(), bounds.x, bounds.y, bounds.width, bounds.height);
         }
-
-        // Check if the color preset was changed
-        if (event.getKey().equals("colorPreset"))
+        else
         {
-            SpecBarConfig.ColorPreset newPreset = SpecBarConfig.ColorPreset.valueOf(event.getNewValue());
-            loadPresetToUI(newPreset);
+            recorder.layout(client.getTickCount(), 0, 0, -1, -1);
         }
     }
 
-    private enum ColorType
+    private void startRecording()
     {
-        HOVER_AREA, HOVER_BORDER,
-        CLICK_AREA, CLICK_BORDER,
-        IDLE_AREA, IDLE_BORDER
-    }
+        if (sessionRecorder != null)
+        {
+            return;
+        }
 
-    private Color getPresetColor(SpecBarConfig.ColorPreset preset, ColorType colorType)
-    {
-        if (preset == SpecBarConfig.ColorPreset.CUSTOM)
+        File file = new File(SESSION_DIR, "session-" + System.currentTimeMillis() + ".sbs");
+        try
         {
-            // Return default colors for custom preset
-            switch (colorType)
+            if (!SESSION_DIR.isDirectory() && !SESSION_DIR.mkdirs())
             {
-                case HOVER_AREA: return new Color(135, 206, 250, 60);
-                case HOVER_BORDER: return new Color(30, 144, 255, 150);
-                case CLICK_AREA: return new Color(255, 69, 0, 80);
-                case CLICK_BORDER: return new Color(220, 20, 60, 180);
-                case IDLE_AREA: return new Color(128, 128, 128, 30);
-                case IDLE_BORDER: return new Color(128, 128, 128, 100);
-                default: return new Color(128, 128, 128, 100);
+                throw new IOException("Unable to create " + SESSION_DIR);
             }
+            SpecBarSessionRecorder recorder = new SpecBarSessionRecorder(new FileOutputStream(file), clock);
+            sessionRecorder = recorder;
+            // No equipment event arrives until something is swapped, so start from what is worn now
+            clientThread.invokeLater(() -> recordEquipment(recorder, client.getItemContainer(InventoryID.WORN)));
+            log.info("Recording spec bar session to {}", file);
         }
-
-        // Return preset-specific colors
-        switch (preset)
-        {
-            case CUSTOM:
-                // Already handled above, but include for completeness
-                return getPresetColor(SpecBarConfig.ColorPreset.CUSTOM, colorType);
-            case CLASSIC_BLUE:
-                switch (colorType)
-                {
-                    case HOVER_AREA: return new Color(100, 149, 237, 120);
-                    case HOVER_BORDER: return new Color(65, 105, 225, 220);
-                    case CLICK_AREA: return new Color(0, 100, 200, 160);
-                    case CLICK_BORDER: return new Color(0, 50, 150, 255);
-                    case IDLE_AREA: return new Color(173, 216, 230, 25);
-                    case IDLE_BORDER: return new Color(135, 206, 250, 80);
-                }
-                break;
-            case WARM_ORANGE:
-                switch (colorType)
-                {
-                    case HOVER_AREA: return new Color(255, 165, 0, 120);
-                    case HOVER_BORDER: return new Color(255, 140, 0, 220);
-                    case CLICK_AREA: return new Color(220, 20, 60, 160);
-                    case CLICK_BORDER: return new Color(180, 0, 0, 255);
-                    case IDLE_AREA: return new Color(255, 218, 185, 25);
-                    case IDLE_BORDER: return new Color(255, 160, 122, 80);
-                }
-                break;
-            case NATURE_GREEN:
-                switch (colorType)
-                {
-                    case HOVER_AREA: return new Color(144, 238, 144, 120);
-                    case HOVER_BORDER: return new Color(34, 139, 34, 220);
-                    case CLICK_AREA: return new Color(0, 128, 0, 160);
-                    case CLICK_BORDER: return new Color(0, 100, 0, 255);
-                    case IDLE_AREA: return new Color(240, 255, 240, 25);
-                    case IDLE_BORDER: return new Color(152, 251, 152, 80);
-                }
-                break;
-            case ROYAL_PURPLE:
-                switch (colorType)
-                {
-                    case HOVER_AREA: return new Color(147, 112, 219, 120);
-                    case HOVER_BORDER: return new Color(138, 43, 226, 220);
-                    case CLICK_AREA: return new Color(128, 0, 128, 160);
-                    case CLICK_BORDER: return new Color(75, 0, 130, 255);
-                    case IDLE_AREA: return new Color(221, 160, 221, 25);
-                    case IDLE_BORDER: return new Color(186, 85, 211, 80);
-                }
-                break;
-            case DARK_THEME:
-                switch (colorType)
-                {
-                    case HOVER_AREA: return new Color(96, 96, 96, 120);
-                    case HOVER_BORDER: return new Color(160, 160, 160, 220);
-                    case CLICK_AREA: return new Color(32, 32, 32, 160);
-                    case CLICK_BORDER: return new Color(220, 220, 220, 255);
-                    case IDLE_AREA: return new Color(48, 48, 48, 25);
-                    case IDLE_BORDER: return new Color(80, 80, 80, 80);
-                }
-                break;
+        catch (IOException e)
+        {
+            log.warn("Unable to start session recording", e);
         }
-        
-        // Fallback to custom colors
-        return getPresetColor(SpecBarConfig.ColorPreset.CUSTOM, colorType);
     }
 
-    // Backup storage for custom settings
-    private Color customHoverArea = null;
-    private Color customHoverBorder = null;
-    private Color customClickArea = null;
-    private Color customClickBorder = null;
-    private Color customIdleArea = null;
-    private Color customIdleBorder = null;
-    private SpecBarConfig.ColorPreset lastPreset = SpecBarConfig.ColorPreset.CUSTOM;
+    private void startFlightRecorder()
+    {
+        flightRecorder.start(new File(FLIGHT_RECORDER_DIR, "flight-recorder.bin"));
+        flightRecording = true;
+    }
+
+    private void stopFlightRecorder()
+    {
+        flightRecording = false;
+        flightRecorder.stop();
+    }
 
     /**
-     * Loads preset values into the UI fields while preserving custom settings.
-     * This allows users to switch between presets and custom without losing their custom values.
+     * Appends a flight recorder record while the flight recorder is enabled. Client thread only.
      */
-    private void loadPresetToUI(SpecBarConfig.ColorPreset preset)
+    private void recordFlight(int type, int tick, int id, int energy)
     {
-        // If switching from CUSTOM to a preset, backup the current custom values
-        if (lastPreset == SpecBarConfig.ColorPreset.CUSTOM && preset != SpecBarConfig.ColorPreset.CUSTOM)
+        if (flightRecording)
         {
-            backupCustomSettings();
+            flightRecorder.record(type, tick, id, energy);
         }
-        
-        // If switching to CUSTOM from a preset, restore the backed up custom values
-        if (preset == SpecBarConfig.ColorPreset.CUSTOM && lastPreset != SpecBarConfig.ColorPreset.CUSTOM)
+    }
+
+    private void stopRecording()
+    {
+        SpecBarSessionRecorder recorder = sessionRecorder;
+        if (recorder == null)
         {
-            restoreCustomSettings();
-            lastPreset = preset;
             return;
         }
-        
-        // If switching between presets (not involving CUSTOM), just load the new preset
-        if (preset != SpecBarConfig.ColorPreset.CUSTOM)
+
+        sessionRecorder = null;
+        try
         {
-            loadPresetValues(preset);
+            recorder.close();
         }
-        
-        lastPreset = preset;
-    }
-    
-    /**
-     * Backs up the current custom color settings before switching to a preset
-     */
-    private void backupCustomSettings()
-    {
-        customHoverArea = config.hoverAreaColor();
-        customHoverBorder = config.hoverBorderColor();
-        customClickArea = config.clickAreaColor();
-        customClickBorder = config.clickBorderColor();
-        customIdleArea = config.idleAreaColor();
-        customIdleBorder = config.idleBorderColor();
-        
-        log.debug("Backed up custom settings before switching to preset");
-    }
-    
-    /**
-     * Restores the previously backed up custom settings
-     */
-    private void restoreCustomSettings()
-    {
-        if (customHoverArea != null)
+        catch (IOException e)
         {
-            configManager.setConfiguration("specbar", "hoverAreaColor", customHoverArea);
-            configManager.setConfiguration("specbar", "hoverBorderColor", customHoverBorder);
-            configManager.setConfiguration("specbar", "clickAreaColor", customClickArea);
-            configManager.setConfiguration("specbar", "clickBorderColor", customClickBorder);
-            configManager.setConfiguration("specbar", "idleAreaColor", customIdleArea);
-            configManager.setConfiguration("specbar", "idleBorderColor", customIdleBorder);
-            
-            log.debug("Restored custom settings");
+            log.warn("Unable to close session recording", e);
         }
     }
-    
-    /**
-     * Loads preset values into the UI configuration
-     */
-    private void loadPresetValues(SpecBarConfig.ColorPreset preset)
-    {
-        Color hoverArea = getPresetColor(preset, ColorType.HOVER_AREA);
-        Color hoverBorder = getPresetColor(preset, ColorType.HOVER_BORDER);
-        Color clickArea = getPresetColor(preset, ColorType.CLICK_AREA);
-        Color clickBorder = getPresetColor(preset, ColorType.CLICK_BORDER);
-        Color idleArea = getPresetColor(preset, ColorType.IDLE_AREA);
-        Color idleBorder = getPresetColor(preset, ColorType.IDLE_BORDER);
-
-        configManager.setConfiguration("specbar", "hoverAreaColor", hoverArea);
-        configManager.setConfiguration("specbar", "hoverBorderColor", hoverBorder);
-        configManager.setConfiguration("specbar", "clickAreaColor", clickArea);
-        configManager.setConfiguration("specbar", "clickBorderColor", clickBorder);
-        configManager.setConfiguration("specbar", "idleAreaColor", idleArea);
-        configManager.setConfiguration("specbar", "idleBorderColor", idleBorder);
-        
-        log.debug("Loaded preset values for: {}", preset);
-    }
 
     @Provides
     SpecBarConfig provideConfig(ConfigManager configManager)
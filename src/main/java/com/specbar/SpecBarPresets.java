@@ -0,0 +1,76 @@
+package com.specbar;
+
+import java.awt.Color;
+
+/**
+ * Colors for the built-in {@link SpecBarConfig.ColorPreset themes}. Presets are applied virtually:
+ * the palette reads them from here instead of writing them over the user's custom color keys.
+ */
+final class SpecBarPresets
+{
+    // Indices into a preset's color array
+    static final int HOVER_AREA = 0;
+    static final int HOVER_BORDER = 1;
+    static final int CLICK_AREA = 2;
+    static final int CLICK_BORDER = 3;
+    static final int IDLE_AREA = 4;
+    static final int IDLE_BORDER = 5;
+    static final int INSUFFICIENT_AREA = 6;
+    static final int INSUFFICIENT_BORDER = 7;
+
+    // Insufficient energy reads the same in every theme
+    private static final Color INSUFFICIENT_AREA_COLOR = new Color(90, 90, 90, 120);
+    private static final Color INSUFFICIENT_BORDER_COLOR = new Color(200, 0, 0, 220);
+
+    // Indexed by preset ordinal; CUSTOM has no entry
+    private static final Color[][] COLORS = new Color[SpecBarConfig.ColorPreset.values().length][];
+
+    static
+    {
+        COLORS[SpecBarConfig.ColorPreset.CLASSIC_BLUE.ordinal()] = new Color[] {
+            new Color(100, 149, 237, 120), new Color(65, 105, 225, 220),
+            new Color(0, 100, 200, 160), new Color(0, 50, 150, 255),
+            new Color(173, 216, 230, 25), new Color(135, 206, 250, 80),
+            INSUFFICIENT_AREA_COLOR, INSUFFICIENT_BORDER_COLOR
+        };
+        COLORS[SpecBarConfig.ColorPreset.WARM_ORANGE.ordinal()] = new Color[] {
+            new Color(255, 165, 0, 120), new Color(255, 140, 0, 220),
+            new Color(220, 20, 60, 160), new Color(180, 0, 0, 255),
+            new Color(255, 218, 185, 25), new Color(255, 160, 122, 80),
+            INSUFFICIENT_AREA_COLOR, INSUFFICIENT_BORDER_COLOR
+        };
+        COLORS[SpecBarConfig.ColorPreset.NATURE_GREEN.ordinal()] = new Color[] {
+            new Color(144, 238, 144, 120), new Color(34, 139, 34, 220),
+            new Color(0, 128, 0, 160), new Color(0, 100, 0, 255),
+            new Color(240, 255, 240, 25), new Color(152, 251, 152, 80),
+            INSUFFICIENT_AREA_COLOR, INSUFFICIENT_BORDER_COLOR
+        };
+        COLORS[SpecBarConfig.ColorPreset.ROYAL_PURPLE.ordinal()] = new Color[] {
+            new Color(147, 112, 219, 120), new Color(138, 43, 226, 220),
+            new Color(128, 0, 128, 160), new Color(75, 0, 130, 255),
+            new Color(221, 160, 221, 25), new Color(186, 85, 211, 80),
+            INSUFFICIENT_AREA_COLOR, INSUFFICIENT_BORDER_COLOR
+        };
+        COLORS[SpecBarConfig.ColorPreset.DARK_THEME.ordinal()] = new Color[] {
+            new Color(96, 96, 96, 120), new Color(160, 160, 160, 220),
+            new Color(32, 32, 32, 160), new Color(220, 220, 220, 255),
+            new Color(48, 48, 48, 25), new Color(80, 80, 80, 80),
+            INSUFFICIENT_AREA_COLOR, INSUFFICIENT_BORDER_COLOR
+        };
+    }
+
+    private SpecBarPresets()
+    {
+    }
+
+    /**
+     * @return a copy of the preset's colors, indexed by {@link #HOVER_AREA} etc., or null for
+     * {@link SpecBarConfig.ColorPreset#CUSTOM}, which uses the color config items
+     */
+    static Color[] colors(SpecBarConfig.ColorPreset preset)
+    {
+        Color[] colors = preset == null ? null : COLORS[preset.ordinal()];
+        // Shared by every palette; callers get their own array
+        return colors == null ? null : colors.clone();
+    }
+}
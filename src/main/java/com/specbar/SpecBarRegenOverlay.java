@@ -0,0 +1,63 @@
+package com.specbar;
+
+import net.runelite.client.ui.FontManager;
+import net.runelite.client.ui.overlay.Overlay;
+import net.runelite.client.ui.overlay.OverlayLayer;
+import net.runelite.client.ui.overlay.OverlayPosition;
+
+import javax.inject.Inject;
+import java.awt.*;
+
+/**
+ * Regen ETA under the spec bar, as text or a thin progress bar. Only added to the overlay manager
+ * while enabled in config; draws values {@link SpecBarRegenTracker} already computed.
+ */
+public class SpecBarRegenOverlay extends Overlay
+{
+    private static final int BAR_HEIGHT = 3;
+    private static final Color BAR_BACKGROUND = new Color(0, 0, 0, 150);
+
+    private final SpecBarPlugin plugin;
+    private final SpecBarLayout layout;
+    private final SpecBarRegenTracker regen;
+
+    @Inject
+    private SpecBarRegenOverlay(SpecBarPlugin plugin, SpecBarLayout layout, SpecBarRegenTracker regen)
+    {
+        this.plugin = plugin;
+        this.layout = layout;
+        this.regen = regen;
+        setPosition(OverlayPosition.DYNAMIC);
+        setLayer(OverlayLayer.ABOVE_WIDGETS);
+    }
+
+    @Override
+    public Dimension render(Graphics2D graphics)
+    {
+        Rectangle bounds = layout.getSpecBarBounds();
+        String etaText = regen.getEtaText();
+        if (bounds == null || etaText == null)
+        {
+            return null;
+        }
+
+        SpecBarPalette palette = plugin.getPalette();
+        int y = bounds.y + bounds.height + 1;
+        if (palette.getRegenDisplay() == SpecBarConfig.RegenDisplay.BAR)
+        {
+            graphics.setColor(BAR_BACKGROUND);
+            graphics.fillRect(bounds.x, y, bounds.width, BAR_HEIGHT);
+            graphics.setColor(palette.getHoverBorderColor());
+            graphics.fillRect(bounds.x, y, (int) (bounds.width * regen.getProgress()), BAR_HEIGHT);
+            return null;
+        }
+
+        graphics.setFont(FontManager.getRunescapeSmallFont());
+        int baseline = y + graphics.getFontMetrics().getAscent();
+        graphics.setColor(Color.BLACK);
+        graphics.drawString(etaText, bounds.x + 1, baseline + 1);
+        graphics.setColor(Color.WHITE);
+        graphics.drawString(etaText, bounds.x, baseline);
+        return null;
+    }
+}
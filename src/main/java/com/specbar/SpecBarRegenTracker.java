@@ -0,0 +1,210 @@
+package com.specbar;
+
+import javax.inject.Singleton;
+import java.util.Arrays;
+
+/**
+ * Estimates when spec energy will reach a threshold. The estimate is O(1) and only recomputed on
+ * spec energy changes, equipment changes and game ticks; the overlay just reads the result.
+ */
+@Singleton
+class SpecBarRegenTracker
+{
+    // Spec energy is stored in tenths of a percent and regenerates 10% at a time
+    static final int MAX_ENERGY = 1000;
+    static final int REGEN_AMOUNT = 100;
+    static final int REGEN_TICKS = 50;
+    static final int LIGHTBEARER_REGEN_TICKS = 25;
+
+    private static final double SECONDS_PER_TICK = 0.6;
+    // Longest countdown: every step from empty at the slowest interval
+    private static final int MAX_ETA_SECONDS = (int) Math.ceil(MAX_ENERGY / REGEN_AMOUNT * REGEN_TICKS * SECONDS_PER_TICK);
+
+    // Client thread only, apart from the threshold which config changes may write
+    private int energy = -1;
+    private int lastRegenTick = -1; // Unknown until a regen step is seen
+    private int regenTicks = REGEN_TICKS;
+    private volatile int thresholdEnergy = 500;
+
+    // Published for the overlay
+    private volatile String etaText;
+    private volatile double progress;
+    private int lastEtaTicks = Integer.MIN_VALUE;
+    private int lastThreshold = -1;
+    // Texts for etaTextsThreshold by shown second and exactness; each regen cycle counts through the same ones
+    private final String[] etaTexts = new String[(MAX_ETA_SECONDS + 1) * 2];
+    private int etaTextsThreshold = -1;
+
+    boolean hasEnergy()
+    {
+        return energy >= 0;
+    }
+
+    void energyChanged(int newEnergy, int tick)
+    {
+        int gained = newEnergy - energy;
+        if (energy >= 0 && gained > 0 && gained <= REGEN_AMOUNT)
+        {
+            // Restores (spec pool, potions) jump further; a step of at most 10% is the regen timer firing
+            lastRegenTick = tick;
+        }
+        energy = newEnergy;
+        update(tick);
+    }
+
+    void setLightbearer(boolean equipped, int tick)
+    {
+        int ticks = equipped ? LIGHTBEARER_REGEN_TICKS : REGEN_TICKS;
+        if (ticks != regenTicks)
+        {
+            regenTicks = ticks;
+            update(tick);
+        }
+    }
+
+    /**
+     * @param percent 1-100; picked up on the next update
+     */
+    void setThreshold(int percent)
+    {
+        thresholdEnergy = Math.max(1, Math.min(100, percent)) * (MAX_ENERGY / 100);
+    }
+
+    /**
+     * Advances the countdown. Called once per game tick.
+     */
+    void tick(int tick)
+    {
+        update(tick);
+    }
+
+    void reset()
+    {
+        energy = -1;
+        lastRegenTick = -1;
+        regenTicks = REGEN_TICKS;
+        etaText = null;
+        progress = 0;
+        lastEtaTicks = Integer.MIN_VALUE;
+        lastThreshold = -1;
+    }
+
+    /**
+     * @return game ticks until energy reaches {@code threshold}, 0 if it already has, or -1 while energy is unknown.
+     * Until a regen step has been seen the timer phase is unknown and the result is an upper bound.
+     */
+    int ticksUntil(int threshold, int tick)
+    {
+        if (energy < 0)
+        {
+            return -1;
+        }
+        if (energy >= threshold)
+        {
+            return 0;
+        }
+
+        int steps = (threshold - energy + REGEN_AMOUNT - 1) / REGEN_AMOUNT;
+        return ticksUntilNextRegen(tick) + (steps - 1) * regenTicks;
+    }
+
+    private int ticksUntilNextRegen(int tick)
+    {
+        if (!isPhaseKnown(tick))
+        {
+            return regenTicks;
+        }
+        return regenTicks - (tick - lastRegenTick) % regenTicks;
+    }
+
+    private boolean isPhaseKnown(int tick)
+    {
+        // The tick count restarts on login and world hops
+        return lastRegenTick >= 0 && tick >= lastRegenTick;
+    }
+
+    private void update(int tick)
+    {
+        int threshold = thresholdEnergy;
+        int etaTicks = ticksUntil(threshold, tick);
+        if (etaTicks == lastEtaTicks && threshold == lastThreshold)
+        {
+            return;
+        }
+        lastEtaTicks = etaTicks;
+        lastThreshold = threshold;
+
+        if (etaTicks < 0)
+        {
+            etaText = null;
+            progress = 0;
+            return;
+        }
+
+        // Energy plus how far the regen timer is towards its next step
+        boolean exact = isPhaseKnown(tick);
+        double regenerated = exact ? (double) REGEN_AMOUNT * ((tick - lastRegenTick) % regenTicks) / regenTicks : 0;
+        progress = Math.min(1.0, (energy + regenerated) / threshold);
+
+        etaText = etaText(threshold, etaSeconds(etaTicks), exact);
+    }
+
+    private String etaText(int threshold, int seconds, boolean exact)
+    {
+        if (threshold != etaTextsThreshold)
+        {
+            Arrays.fill(etaTexts, null);
+            etaTextsThreshold = threshold;
+        }
+
+        int index = seconds * 2 + (exact ? 1 : 0);
+        if (index >= etaTexts.length)
+        {
+            return formatEta(threshold, seconds, exact);
+        }
+
+        String text = etaTexts[index];
+        if (text == null)
+        {
+            text = formatEta(threshold, seconds, exact);
+            etaTexts[index] = text;
+        }
+        return text;
+    }
+
+    private static int etaSeconds(int etaTicks)
+    {
+        return (int) Math.ceil(etaTicks * SECONDS_PER_TICK);
+    }
+
+    /**
+     * @param seconds until the threshold is reached, 0 if it already has
+     */
+    private static String formatEta(int threshold, int seconds, boolean exact)
+    {
+        String label = threshold / (MAX_ENERGY / 100) + "%";
+        if (seconds == 0)
+        {
+            return label + " ready";
+        }
+
+        int remainder = seconds % 60;
+        return label + " in " + (exact ? "" : "~") + seconds / 60 + (remainder < 10 ? ":0" : ":") + remainder;
+    }
+
+    /**
+     * e.g. "50% in 0:42", or null while energy is unknown.
+     */
+    String getEtaText()
+    {
+        return etaText;
+    }
+
+    /**
+     * 0-1 progress towards the threshold, including the regen timer's progress.
+     */
+    double getProgress()
+    {
+        return progress;
+    }
+}
@@ -0,0 +1,159 @@
+package com.specbar;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Compact binary format for recorded plugin sessions.
+ * <p>
+ * A session is the {@link #MAGIC} header followed by records of
+ * {@code [type byte][time delta varint][tick delta varint][payload]}. Times are nanoseconds from
+ * {@link SpecBarClock} and ticks are {@code client.getTickCount()}, both delta encoded against the
+ * previous record. Integers in payloads are zigzag varints and strings are a varint byte length
+ * followed by UTF-8. Sessions are written by {@link SpecBarSessionRecorder}.
+ */
+final class SpecBarSession
+{
+    static final int MAGIC = 0x53425331; // "SBS1"
+
+    static final int CLIENT_TICK = 1;
+    static final int GAME_TICK = 2;
+    static final int MENU_CLICK = 3;  // menu action id, param1
+    static final int VARP = 4;        // varp id, value
+    static final int ANIMATION = 5;   // local player animation id
+    static final int GRAPHIC = 6;     // local player graphic id
+    static final int CHAT = 7;        // chat message type, message
+    static final int MOUSE = 8;       // canvas x, y
+    static final int LAYOUT = 9;      // spec bar bounds x, y, width, height; width -1 when hidden
+    static final int EQUIPMENT = 10;  // weapon item id, ring item id; -1 for an empty slot
+    static final int MOUSE_PRESS = 11; // canvas x, y of a left button press on a spec button
+
+    private SpecBarSession()
+    {
+    }
+
+    /**
+     * Receives the records of a session in order. {@link #at} is called before every record.
+     */
+    interface Visitor
+    {
+        void at(long nanos, int tick);
+
+        void clientTick();
+
+        void gameTick();
+
+        void menuClick(int menuActionId, int param1);
+
+        void varp(int varpId, int value);
+
+        void animation(int animationId);
+
+        void graphic(int graphicId);
+
+        void chat(int chatMessageType, String message);
+
+        void mouse(int x, int y);
+
+        void layout(int x, int y, int width, int height);
+
+        void equipment(int weaponId, int ringId);
+
+        void mousePress(int x, int y);
+    }
+
+    static void read(InputStream in, Visitor visitor) throws IOException
+    {
+        DataInputStream data = new DataInputStream(in);
+        if (data.readInt() != MAGIC)
+        {
+            throw new IOException("Not a spec bar session");
+        }
+
+        long nanos = 0;
+        int tick = 0;
+        for (;;)
+        {
+            int type = data.read();
+            if (type == -1)
+            {
+                return;
+            }
+
+            nanos += readVarLong(data);
+            tick += readVarInt(data);
+            visitor.at(nanos, tick);
+
+            switch (type)
+            {
+                case CLIENT_TICK:
+                    visitor.clientTick();
+                    break;
+                case GAME_TICK:
+                    visitor.gameTick();
+                    break;
+                case MENU_CLICK:
+                    visitor.menuClick(readVarInt(data), readVarInt(data));
+                    break;
+                case VARP:
+                    visitor.varp(readVarInt(data), readVarInt(data));
+                    break;
+                case ANIMATION:
+                    visitor.animation(readVarInt(data));
+                    break;
+                case GRAPHIC:
+                    visitor.graphic(readVarInt(data));
+                    break;
+                case CHAT:
+                {
+                    int chatMessageType = readVarInt(data);
+                    byte[] message = new byte[readVarInt(data)];
+                    data.readFully(message);
+                    visitor.chat(chatMessageType, new String(message, StandardCharsets.UTF_8));
+                    break;
+                }
+                case MOUSE:
+                    visitor.mouse(readVarInt(data), readVarInt(data));
+                    break;
+                case LAYOUT:
+                    visitor.layout(readVarInt(data), readVarInt(data), readVarInt(data), readVarInt(data));
+                    break;
+                case EQUIPMENT:
+                    visitor.equipment(readVarInt(data), readVarInt(data));
+                    break;
+                case MOUSE_PRESS:
+                    visitor.mousePress(readVarInt(data), readVarInt(data));
+                    break;
+                default:
+                    throw new IOException("Unknown record type " + type);
+            }
+        }
+    }
+
+    private static int readVarInt(DataInputStream in) throws IOException
+    {
+        return (int) readVarLong(in);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException
+    {
+        long zigzag = 0;
+        for (int shift = 0; shift < 64; shift += 7)
+        {
+            int b = in.read();
+            if (b == -1)
+            {
+                throw new EOFException("Truncated session record");
+            }
+            zigzag |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0)
+            {
+                return (zigzag >>> 1) ^ -(zigzag & 1);
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+}
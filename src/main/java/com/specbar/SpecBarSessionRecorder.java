@@ -0,0 +1,230 @@
+package com.specbar;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes the events the plugin sees to a {@link SpecBarSession} stream. Records are encoded into a
+ * fixed buffer; whenever it fills up it is handed to a background writer and recording carries on in
+ * a spare one, so a game tick never waits on disk IO. Methods are synchronized because mouse
+ * events arrive on the AWT thread while everything else arrives on the client thread.
+ * A write error is logged once and stops the recording; it never propagates into the event handlers.
+ */
+@Slf4j
+class SpecBarSessionRecorder implements Closeable
+{
+    private static final int BUFFER_SIZE = 1 << 16;
+    // Largest fixed-size record: type, two 10-byte varints and four 5-byte varints
+    private static final int MAX_RECORD_SIZE = 1 + 10 + 10 + 4 * 5;
+
+    private final OutputStream out;
+    private final SpecBarClock clock;
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(runnable ->
+    {
+        Thread thread = new Thread(runnable, "spec-bar-session-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Buffers the writer has finished with, reused so a steady recording stops allocating
+    private final Queue<byte[]> spare = new ConcurrentLinkedQueue<>();
+    private byte[] buffer = new byte[BUFFER_SIZE];
+    private int position = 0;
+    private long lastNanos;
+    private int lastTick = 0;
+    // Set by the writer thread
+    private volatile boolean failed = false;
+
+    SpecBarSessionRecorder(OutputStream out, SpecBarClock clock)
+    {
+        this.out = out;
+        this.clock = clock;
+        this.lastNanos = clock.nanoTime();
+        putInt(SpecBarSession.MAGIC);
+    }
+
+    synchronized void clientTick(int tick)
+    {
+        header(SpecBarSession.CLIENT_TICK, tick);
+    }
+
+    synchronized void gameTick(int tick)
+    {
+        header(SpecBarSession.GAME_TICK, tick);
+    }
+
+    synchronized void menuClick(int tick, int menuActionId, int param1)
+    {
+        header(SpecBarSession.MENU_CLICK, tick);
+        putVarLong(menuActionId);
+        putVarLong(param1);
+    }
+
+    synchronized void varp(int tick, int varpId, int value)
+    {
+        header(SpecBarSession.VARP, tick);
+        putVarLong(varpId);
+        putVarLong(value);
+    }
+
+    synchronized void animation(int tick, int animationId)
+    {
+        header(SpecBarSession.ANIMATION, tick);
+        putVarLong(animationId);
+    }
+
+    synchronized void graphic(int tick, int graphicId)
+    {
+        header(SpecBarSession.GRAPHIC, tick);
+        putVarLong(graphicId);
+    }
+
+    synchronized void chat(int tick, int chatMessageType, String message)
+    {
+        byte[] bytes = message.getBytes(StandardCharsets.UTF_8);
+        header(SpecBarSession.CHAT, tick);
+        putVarLong(chatMessageType);
+        putVarLong(bytes.length);
+        for (byte b : bytes)
+        {
+            if (position == BUFFER_SIZE)
+            {
+                flushBuffer();
+            }
+            buffer[position++] = b;
+        }
+    }
+
+    synchronized void mouse(int tick, int x, int y)
+    {
+        header(SpecBarSession.MOUSE, tick);
+        putVarLong(x);
+        putVarLong(y);
+    }
+
+    synchronized void layout(int tick, int x, int y, int width, int height)
+    {
+        header(SpecBarSession.LAYOUT, tick);
+        putVarLong(x);
+        putVarLong(y);
+        putVarLong(width);
+        putVarLong(height);
+    }
+
+    synchronized void equipment(int tick, int weaponId, int ringId)
+    {
+        header(SpecBarSession.EQUIPMENT, tick);
+        putVarLong(weaponId);
+        putVarLong(ringId);
+    }
+
+    synchronized void mousePress(int tick, int x, int y)
+    {
+        header(SpecBarSession.MOUSE_PRESS, tick);
+        putVarLong(x);
+        putVarLong(y);
+    }
+
+    /**
+     * Writes what is left, waits for the writer to finish and closes the stream.
+     */
+    @Override
+    public synchronized void close() throws IOException
+    {
+        flushBuffer();
+        writer.shutdown();
+        try
+        {
+            if (!writer.awaitTermination(5, TimeUnit.SECONDS))
+            {
+                log.warn("Spec bar session writer did not finish writing");
+            }
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+        failed = true;
+        out.close();
+    }
+
+    private void header(int type, int tick)
+    {
+        if (BUFFER_SIZE - position < MAX_RECORD_SIZE)
+        {
+            flushBuffer();
+        }
+
+        long nanos = clock.nanoTime();
+        buffer[position++] = (byte) type;
+        putVarLong(nanos - lastNanos);
+        putVarLong(tick - lastTick);
+        lastNanos = nanos;
+        lastTick = tick;
+    }
+
+    private void putInt(int value)
+    {
+        buffer[position++] = (byte) (value >>> 24);
+        buffer[position++] = (byte) (value >>> 16);
+        buffer[position++] = (byte) (value >>> 8);
+        buffer[position++] = (byte) value;
+    }
+
+    private void putVarLong(long value)
+    {
+        long zigzag = (value << 1) ^ (value >> 63);
+        while ((zigzag & ~0x7FL) != 0)
+        {
+            buffer[position++] = (byte) ((zigzag & 0x7F) | 0x80);
+            zigzag >>>= 7;
+        }
+        buffer[position++] = (byte) zigzag;
+    }
+
+    /**
+     * Hands the filled part of the buffer to the writer and continues in a spare buffer.
+     */
+    private void flushBuffer()
+    {
+        if (!failed && position > 0 && !writer.isShutdown())
+        {
+            byte[] full = buffer;
+            int length = position;
+            writer.execute(() -> write(full, length));
+
+            byte[] next = spare.poll();
+            buffer = next != null ? next : new byte[BUFFER_SIZE];
+        }
+        // Once failed, records are still encoded but simply discarded
+        position = 0;
+    }
+
+    /**
+     * Runs on the writer thread, one buffer at a time and in the order they filled up.
+     */
+    private void write(byte[] full, int length)
+    {
+        if (!failed)
+        {
+            try
+            {
+                out.write(full, 0, length);
+            }
+            catch (IOException e)
+            {
+                failed = true;
+                log.warn("Stopping session recording after write error", e);
+            }
+        }
+        spare.offer(full);
+    }
+}
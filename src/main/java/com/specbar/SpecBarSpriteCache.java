@@ -0,0 +1,101 @@
+package com.specbar;
+
+import java.awt.AlphaComposite;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+
+/**
+ * Pre-rendered fill and border images for each visual state of one target, so a frame is a single blit.
+ * Images are rebuilt only when the target size or the palette changes.
+ */
+class SpecBarSpriteCache
+{
+    static final int STATE_IDLE = 0;
+    static final int STATE_HOVER = 1;
+    static final int STATE_CLICK = 2;
+    static final int STATE_INSUFFICIENT = 3;
+    private static final int STATE_COUNT = 4;
+
+    // Drawn inside the bounds, so the highlight never covers pixels that do not take the click
+    private static final int BORDER_WIDTH = 2;
+
+    private final int target;
+    private final BufferedImage[] sprites = new BufferedImage[STATE_COUNT];
+    private SpecBarPalette spritePalette;
+    private int spriteWidth;
+    private int spriteHeight;
+
+    /**
+     * @param target the {@link SpecBarHitboxes} target whose colors the sprites use
+     */
+    SpecBarSpriteCache(int target)
+    {
+        this.target = target;
+    }
+
+    /**
+     * Returns the image for {@code state} covering exactly a {@code width} x {@code height} area.
+     */
+    BufferedImage get(int state, int width, int height, SpecBarPalette palette, GraphicsConfiguration configuration)
+    {
+        if (palette != spritePalette || width != spriteWidth || height != spriteHeight)
+        {
+            clear();
+            spritePalette = palette;
+            spriteWidth = width;
+            spriteHeight = height;
+        }
+
+        BufferedImage sprite = sprites[state];
+        if (sprite == null)
+        {
+            sprite = createSprite(target, state, width, height, palette, configuration);
+            sprites[state] = sprite;
+        }
+        return sprite;
+    }
+
+    void clear()
+    {
+        for (int i = 0; i < STATE_COUNT; i++)
+        {
+            if (sprites[i] != null)
+            {
+                sprites[i].flush();
+                sprites[i] = null;
+            }
+        }
+        spritePalette = null;
+    }
+
+    private static BufferedImage createSprite(int target, int state, int width, int height, SpecBarPalette palette,
+                                              GraphicsConfiguration configuration)
+    {
+        BufferedImage image = configuration != null
+            ? configuration.createCompatibleImage(width, height, Transparency.TRANSLUCENT)
+            : new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+
+        Color areaColor = palette.getAreaColor(target, state);
+        Color borderColor = palette.getBorderColor(target, state);
+
+        Graphics2D g = image.createGraphics();
+        // Colors carry their own alpha (@Alpha config items); write them as-is instead of blending
+        g.setComposite(AlphaComposite.Src);
+        g.setColor(areaColor);
+        g.fillRect(0, 0, width, height);
+
+        // Blend the border over the fill, matching how the two were layered on the canvas
+        g.setComposite(AlphaComposite.SrcOver);
+        g.setColor(borderColor);
+        int border = Math.min(BORDER_WIDTH, Math.min(width, height) / 2);
+        g.fillRect(0, 0, width, border);
+        g.fillRect(0, height - border, width, border);
+        g.fillRect(0, border, border, height - border * 2);
+        g.fillRect(width - border, border, border, height - border * 2);
+        g.dispose();
+        return image;
+    }
+}
@@ -0,0 +1,107 @@
+package com.specbar;
+
+import java.awt.Rectangle;
+import java.util.Arrays;
+
+/**
+ * Everything the overlay needs for one frame: what to draw on each target, where, and in which
+ * colors. The plugin publishes a new instance only when one of these changes, so the overlay can
+ * compare by identity.
+ */
+final class SpecBarState
+{
+    // Nothing to draw; otherwise one of the SpecBarSpriteCache states
+    static final int NONE = -1;
+
+    static final SpecBarState EMPTY = new SpecBarState(emptyRenderStates(), SpecBarHitboxes.EMPTY, null);
+
+    private final int[] renderStates;
+    private final SpecBarHitboxes hitboxes;
+    private final SpecBarPalette palette;
+
+    private SpecBarState(int[] renderStates, SpecBarHitboxes hitboxes, SpecBarPalette palette)
+    {
+        this.renderStates = renderStates;
+        this.hitboxes = hitboxes;
+        this.palette = palette;
+    }
+
+    /**
+     * Returns the snapshot for these inputs, reusing {@code current} or one of the {@code recent} snapshots
+     * when they match. A click cycles through the same few states, so once they have all been seen,
+     * publishing allocates nothing.
+     *
+     * @param renderStates the state to draw per {@link SpecBarHitboxes} target; copied
+     * @param hitboxes the clickboxes, which are also exactly where the targets are drawn
+     * @param recent most recently created snapshots first; updated in place
+     */
+    static SpecBarState next(SpecBarState current, int[] renderStates, SpecBarHitboxes hitboxes, SpecBarPalette palette,
+                             SpecBarState[] recent)
+    {
+        if (isEmpty(renderStates))
+        {
+            return EMPTY;
+        }
+
+        if (current.matches(renderStates, hitboxes, palette))
+        {
+            return current;
+        }
+        for (SpecBarState state : recent)
+        {
+            if (state != null && state.matches(renderStates, hitboxes, palette))
+            {
+                return state;
+            }
+        }
+
+        SpecBarState state = new SpecBarState(renderStates.clone(), hitboxes, palette);
+        System.arraycopy(recent, 0, recent, 1, recent.length - 1);
+        recent[0] = state;
+        return state;
+    }
+
+    private boolean matches(int[] renderStates, SpecBarHitboxes hitboxes, SpecBarPalette palette)
+    {
+        return this.palette == palette && this.hitboxes == hitboxes && Arrays.equals(this.renderStates, renderStates);
+    }
+
+    private static boolean isEmpty(int[] renderStates)
+    {
+        for (int renderState : renderStates)
+        {
+            if (renderState != NONE)
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int[] emptyRenderStates()
+    {
+        int[] renderStates = new int[SpecBarHitboxes.TARGET_COUNT];
+        Arrays.fill(renderStates, NONE);
+        return renderStates;
+    }
+
+    boolean isEmpty()
+    {
+        return this == EMPTY;
+    }
+
+    int getRenderState(int target)
+    {
+        return renderStates[target];
+    }
+
+    Rectangle getBounds(int target)
+    {
+        return hitboxes.getBounds(target);
+    }
+
+    SpecBarPalette getPalette()
+    {
+        return palette;
+    }
+}
@@ -0,0 +1,106 @@
+package com.specbar;
+
+import java.awt.AlphaComposite;
+
+/**
+ * Precomputed opacity ramps for fading between visual states and pulsing a pending click.
+ * Ramps are indexed by client cycles (20ms) since the transition started and hold indexes into a
+ * fixed pool of composites, so an animated frame allocates nothing.
+ */
+final class SpecBarTransitions
+{
+    // Opacity resolution: composites for 0/16 through 16/16
+    static final int STEPS = 16;
+    private static final AlphaComposite[] COMPOSITES = new AlphaComposite[STEPS + 1];
+
+    static
+    {
+        for (int step = 0; step <= STEPS; step++)
+        {
+            COMPOSITES[step] = AlphaComposite.getInstance(AlphaComposite.SRC_OVER, (float) step / STEPS);
+        }
+    }
+
+    static final int CYCLE_MILLIS = 20;
+    // One pulse every two game ticks, between half and full opacity
+    static final int PULSE_CYCLES = 60;
+    private static final double PULSE_MIN = 0.5;
+
+    static final SpecBarTransitions NONE = new SpecBarTransitions(SpecBarConfig.Transition.NONE, 0);
+
+    private final int[] fadeRamp;
+    private final int[] pulseRamp;
+
+    private SpecBarTransitions(SpecBarConfig.Transition transition, int fadeMillis)
+    {
+        if (transition == SpecBarConfig.Transition.NONE)
+        {
+            fadeRamp = new int[0];
+            pulseRamp = null;
+            return;
+        }
+
+        // Ease out: most of the change lands in the first frames, so the new state reads immediately
+        int fadeCycles = Math.max(1, (fadeMillis + CYCLE_MILLIS - 1) / CYCLE_MILLIS);
+        fadeRamp = new int[fadeCycles];
+        for (int cycle = 0; cycle < fadeCycles; cycle++)
+        {
+            double remaining = 1 - (double) (cycle + 1) / (fadeCycles + 1);
+            fadeRamp[cycle] = (int) Math.round(STEPS * (1 - remaining * remaining));
+        }
+
+        if (transition == SpecBarConfig.Transition.FADE_AND_PULSE)
+        {
+            pulseRamp = new int[PULSE_CYCLES];
+            for (int cycle = 0; cycle < PULSE_CYCLES; cycle++)
+            {
+                double wave = (1 + Math.cos(2 * Math.PI * cycle / PULSE_CYCLES)) / 2;
+                pulseRamp[cycle] = (int) Math.round(STEPS * (PULSE_MIN + (1 - PULSE_MIN) * wave));
+            }
+        }
+        else
+        {
+            pulseRamp = null;
+        }
+    }
+
+    static SpecBarTransitions from(SpecBarConfig config)
+    {
+        SpecBarConfig.Transition transition = config.transition();
+        return transition == SpecBarConfig.Transition.NONE ? NONE : new SpecBarTransitions(transition, config.fadeDuration());
+    }
+
+    /**
+     * Cycles a fade lasts; 0 when states switch instantly.
+     */
+    int getFadeCycles()
+    {
+        return fadeRamp.length;
+    }
+
+    /**
+     * Opacity step of the state being faded in, {@code elapsedCycles} after the change.
+     */
+    int fadeStep(int elapsedCycles)
+    {
+        return elapsedCycles < 0 || elapsedCycles >= fadeRamp.length ? STEPS : fadeRamp[elapsedCycles];
+    }
+
+    boolean isPulsing()
+    {
+        return pulseRamp != null;
+    }
+
+    /**
+     * Opacity step of a pending click, {@code elapsedCycles} after it was made.
+     */
+    int pulseStep(int elapsedCycles)
+    {
+        return pulseRamp == null ? STEPS : pulseRamp[Math.floorMod(elapsedCycles, PULSE_CYCLES)];
+    }
+
+    static AlphaComposite composite(int step)
+    {
+        return COMPOSITES[step];
+    }
+}
@@ -0,0 +1,155 @@
+package com.specbar;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Special attack energy cost per weapon item ID, in an open addressing int map so lookups are O(1)
+ * and allocation free. The costs come from the bundled {@code spec_costs.txt} resource.
+ */
+final class SpecCostTable
+{
+    static final int UNKNOWN = -1;
+
+    private static final String RESOURCE = "spec_costs.txt";
+    // Item IDs are never negative, so this marks a free slot
+    private static final int FREE = -1;
+
+    private final int[] itemIds;
+    private final int[] costs;
+    private final int shift;
+
+    private SpecCostTable(int[] ids, int[] percents, int count)
+    {
+        // At most half full, so probe chains stay short
+        int bits = 32 - Integer.numberOfLeadingZeros(Math.max(2, count * 2) - 1);
+        itemIds = new int[1 << bits];
+        costs = new int[1 << bits];
+        shift = 32 - bits;
+        Arrays.fill(itemIds, FREE);
+        for (int i = 0; i < count; i++)
+        {
+            int slot = slotOf(ids[i]);
+            itemIds[slot] = ids[i];
+            // Spec energy is tracked in tenths of a percent, as in the SA_ENERGY varp
+            costs[slot] = percents[i] * 10;
+        }
+    }
+
+    static SpecCostTable load()
+    {
+        try (InputStream in = SpecCostTable.class.getResourceAsStream(RESOURCE))
+        {
+            if (in == null)
+            {
+                throw new IllegalStateException("Missing resource " + RESOURCE);
+            }
+            return parse(new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)));
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException("Unable to load " + RESOURCE, e);
+        }
+    }
+
+    static SpecCostTable parse(BufferedReader reader) throws IOException
+    {
+        int[] ids = new int[64];
+        int[] percents = new int[64];
+        int count = 0;
+
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null)
+        {
+            lineNumber++;
+            int comment = line.indexOf('#');
+            if (comment != -1)
+            {
+                line = line.substring(0, comment);
+            }
+            line = line.trim();
+            if (line.isEmpty())
+            {
+                continue;
+            }
+
+            String[] parts = line.split("\\s+");
+            if (parts.length != 2)
+            {
+                throw new IOException("Malformed entry on line " + lineNumber + ": " + line);
+            }
+
+            int id;
+            int percent;
+            try
+            {
+                id = Integer.parseInt(parts[0]);
+                percent = Integer.parseInt(parts[1]);
+            }
+            catch (NumberFormatException e)
+            {
+                throw new IOException("Invalid number on line " + lineNumber + ": " + line, e);
+            }
+            if (id < 0)
+            {
+                throw new IOException("Negative id on line " + lineNumber + ": " + id);
+            }
+            if (percent < 1 || percent > 100)
+            {
+                throw new IOException("Cost out of range on line " + lineNumber + ": " + percent);
+            }
+            for (int i = 0; i < count; i++)
+            {
+                if (ids[i] == id)
+                {
+                    throw new IOException("Duplicate id on line " + lineNumber + ": " + id);
+                }
+            }
+
+            if (count == ids.length)
+            {
+                ids = Arrays.copyOf(ids, count * 2);
+                percents = Arrays.copyOf(percents, count * 2);
+            }
+            ids[count] = id;
+            percents[count] = percent;
+            count++;
+        }
+
+        return new SpecCostTable(ids, percents, count);
+    }
+
+    /**
+     * @return the spec energy the item's special attack uses, in tenths of a percent, or {@link #UNKNOWN}
+     */
+    int getCost(int itemId)
+    {
+        if (itemId < 0)
+        {
+            return UNKNOWN;
+        }
+
+        int slot = slotOf(itemId);
+        return itemIds[slot] == itemId ? costs[slot] : UNKNOWN;
+    }
+
+    /**
+     * The slot holding {@code itemId}, or the free slot it belongs in.
+     */
+    private int slotOf(int itemId)
+    {
+        int mask = itemIds.length - 1;
+        int slot = (itemId * 0x9E3779B9) >>> shift;
+        while (itemIds[slot] != FREE && itemIds[slot] != itemId)
+        {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+}
@@ -0,0 +1,117 @@
+package com.specbar;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.BitSet;
+
+/**
+ * Special attack animation and graphic IDs, backed by bitsets so lookups are O(1) and allocation free.
+ * The IDs come from the bundled {@code spec_ids.txt} resource.
+ */
+final class SpecIdTable
+{
+    private static final String RESOURCE = "spec_ids.txt";
+
+    private final long[] animations;
+    private final long[] graphics;
+
+    private SpecIdTable(BitSet animations, BitSet graphics)
+    {
+        this.animations = animations.toLongArray();
+        this.graphics = graphics.toLongArray();
+    }
+
+    static SpecIdTable load()
+    {
+        try (InputStream in = SpecIdTable.class.getResourceAsStream(RESOURCE))
+        {
+            if (in == null)
+            {
+                throw new IllegalStateException("Missing resource " + RESOURCE);
+            }
+            return parse(new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)));
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException("Unable to load " + RESOURCE, e);
+        }
+    }
+
+    static SpecIdTable parse(BufferedReader reader) throws IOException
+    {
+        BitSet animations = new BitSet();
+        BitSet graphics = new BitSet();
+
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null)
+        {
+            lineNumber++;
+            int comment = line.indexOf('#');
+            if (comment != -1)
+            {
+                line = line.substring(0, comment);
+            }
+            line = line.trim();
+            if (line.isEmpty())
+            {
+                continue;
+            }
+
+            String[] parts = line.split("\\s+");
+            if (parts.length != 2)
+            {
+                throw new IOException("Malformed entry on line " + lineNumber + ": " + line);
+            }
+
+            int id;
+            try
+            {
+                id = Integer.parseInt(parts[1]);
+            }
+            catch (NumberFormatException e)
+            {
+                throw new IOException("Invalid id on line " + lineNumber + ": " + parts[1], e);
+            }
+            if (id < 0)
+            {
+                throw new IOException("Negative id on line " + lineNumber + ": " + id);
+            }
+
+            switch (parts[0])
+            {
+                case "anim":
+                    animations.set(id);
+                    break;
+                case "graphic":
+                    graphics.set(id);
+                    break;
+                default:
+                    throw new IOException("Unknown entry type on line " + lineNumber + ": " + parts[0]);
+            }
+        }
+
+        return new SpecIdTable(animations, graphics);
+    }
+
+    boolean isSpecAnimation(int animationId)
+    {
+        return contains(animations, animationId);
+    }
+
+    boolean isSpecGraphic(int graphicId)
+    {
+        return contains(graphics, graphicId);
+    }
+
+    private static boolean contains(long[] bits, int id)
+    {
+        // -1 is the "no animation/graphic" value, so negative ids are expected here
+        int word = id >> 6;
+        return id >= 0 && word < bits.length && (bits[word] & (1L << id)) != 0;
+    }
+}
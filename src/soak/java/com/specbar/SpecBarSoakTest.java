@@ -0,0 +1,388 @@
+package com.specbar;
+
+import net.runelite.api.ChatMessageType;
+import net.runelite.api.Client;
+import net.runelite.api.MenuAction;
+import net.runelite.api.MenuEntry;
+import net.runelite.api.Player;
+import net.runelite.api.events.AnimationChanged;
+import net.runelite.api.events.BeforeRender;
+import net.runelite.api.events.CanvasSizeChanged;
+import net.runelite.api.events.ChatMessage;
+import net.runelite.api.events.ClientTick;
+import net.runelite.api.events.GameTick;
+import net.runelite.api.events.GraphicChanged;
+import net.runelite.api.events.MenuOptionClicked;
+import net.runelite.api.events.VarbitChanged;
+import net.runelite.api.gameval.InterfaceID;
+import net.runelite.api.gameval.VarPlayerID;
+import net.runelite.api.widgets.Widget;
+import net.runelite.client.events.ConfigChanged;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+
+import static org.junit.Assert.*;
+
+/**
+ * Drives millions of synthetic events through the plugin and overlay and fails if a steady-state
+ * handler allocates, or if any phase leaves the heap bigger than it found it. Run with
+ * {@code ./gradlew soak}; {@code -Psoak.events=<n>} sets the events per phase.
+ *
+ * <p>The stand-in client answers from preboxed values and every event object is created up front,
+ * so whatever the allocation counter sees comes from the plugin itself.
+ */
+public class SpecBarSoakTest
+{
+    private static final Logger log = LoggerFactory.getLogger(SpecBarSoakTest.class);
+
+    private static final int EVENTS = Integer.getInteger("soak.events", 1_000_000);
+    // Any allocation per event is at least 16 bytes; this leaves room for the odd JIT or GC bookkeeping object
+    private static final double MAX_BYTES_PER_EVENT = 0.01;
+    private static final long MAX_RETAINED_BYTES = 2L << 20;
+
+    private static final int SPEC_ANIMATION = 1062; // Dragon dagger
+    private static final int OTHER_ANIMATION = 422; // Punch
+    private static final String NOT_ENOUGH_POWER = "You don't have enough power left.";
+
+    private final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+    // Boxed once, so stub answers never box on the measured path; enough for every tick and cycle a phase uses
+    private final Integer[] boxed = new Integer[EVENTS + Math.max(EVENTS / 5, 50_000) + 2048];
+    private Integer tickCount;
+    private Integer gameCycle;
+    private Integer animation;
+
+    private SpecBarConfig.ColorPreset preset = SpecBarConfig.ColorPreset.CUSTOM;
+    private SpecBarPlugin plugin;
+    private SpecBarOverlay overlay;
+    private Graphics2D graphics;
+
+    // Reused events
+    private final ClientTick clientTick = new ClientTick();
+    private final GameTick gameTick = new GameTick();
+    private final BeforeRender beforeRender = new BeforeRender();
+    private final VarbitChanged energyChanged = new VarbitChanged();
+    private final AnimationChanged animationChanged = new AnimationChanged();
+    private final GraphicChanged graphicChanged = new GraphicChanged();
+    private final ChatMessage failMessage = new ChatMessage();
+    private final ChatMessage otherMessage = new ChatMessage();
+    private final ConfigChanged presetChanged = new ConfigChanged();
+    private MenuOptionClicked specBarClick;
+    private MenuOptionClicked walkClick;
+
+    private int tick;
+    private int cycle;
+    private int energy;
+
+    @Before
+    public void setUp()
+    {
+        for (int i = 0; i < boxed.length; i++)
+        {
+            boxed[i] = i;
+        }
+        tickCount = boxed[0];
+        gameCycle = boxed[0];
+        animation = boxed[OTHER_ANIMATION];
+
+        Player player = SpecBarStubs.stub(Player.class, (method, args) ->
+            method.equals("getAnimation") ? animation : SpecBarStubs.DEFAULT);
+        Rectangle bar = SpecBarStubs.SPEC_BAR_BOUNDS;
+        Widget specBar = SpecBarStubs.widget(() -> bar);
+        Client client = SpecBarStubs.stub(Client.class, (method, args) ->
+        {
+            switch (method)
+            {
+                case "getLocalPlayer": return player;
+                case "getTickCount": return tickCount;
+                case "getGameCycle": return gameCycle;
+                case "getVarpValue": return boxed[1000];
+                case "getWidget": return (Integer) args[0] == InterfaceID.CombatInterface.SP_ATTACKBAR ? specBar : null;
+                default: return SpecBarStubs.DEFAULT;
+            }
+        });
+
+        SpecBarConfig config = new SpecBarConfig()
+        {
+            @Override
+            public ColorPreset colorPreset()
+            {
+                return preset;
+            }
+
+            @Override
+            public boolean hideSpecBarText()
+            {
+                return true;
+            }
+
+            @Override
+            public Transition transition()
+            {
+                return Transition.FADE_AND_PULSE;
+            }
+
+            @Override
+            public RegenDisplay regenDisplay()
+            {
+                return RegenDisplay.TEXT;
+            }
+
+            @Override
+            public int frameBudget()
+            {
+                // Instrumented, but never degrading; a level change logs
+                return 5000;
+            }
+        };
+        plugin = SpecBarStubs.plugin(client, config);
+        plugin.getFrameBudget().setBudgetMicros(config.frameBudget());
+        // Into the in-memory ring only; starting it for real would also map the file and start its flush thread
+        SpecBarStubs.inject(plugin, "flightRecording", true);
+        overlay = SpecBarStubs.overlay(plugin, client);
+        graphics = new BufferedImage(765, 503, BufferedImage.TYPE_INT_RGB).createGraphics();
+
+        plugin.onCanvasSizeChanged(new CanvasSizeChanged());
+        plugin.onClientTick(clientTick);
+        plugin.onClientTick(clientTick);
+
+        specBarClick = new MenuOptionClicked(menuEntry(MenuAction.CC_OP, InterfaceID.CombatInterface.SP_ATTACKBAR));
+        walkClick = new MenuOptionClicked(menuEntry(MenuAction.WALK, 0));
+        energyChanged.setVarpId(VarPlayerID.SA_ENERGY);
+        energyChanged.setVarbitId(-1);
+        animationChanged.setActor(player);
+        graphicChanged.setActor(player);
+        failMessage.setType(ChatMessageType.GAMEMESSAGE);
+        failMessage.setMessage(NOT_ENOUGH_POWER);
+        otherMessage.setType(ChatMessageType.GAMEMESSAGE);
+        otherMessage.setMessage("Welcome to Old School RuneScape.");
+        presetChanged.setGroup("specbar");
+        presetChanged.setKey("colorPreset");
+    }
+
+    @Test
+    public void testHoverDoesNotAllocate()
+    {
+        Rectangle bar = SpecBarStubs.SPEC_BAR_BOUNDS;
+        soak("hover", EVENTS, true, events ->
+        {
+            for (int i = 0; i < events; i++)
+            {
+                // In and out of the bar, and across it
+                int x = (i & 4) == 0 ? bar.x + (i & 127) : bar.x - 10;
+                plugin.onMouseMoved(x, bar.y + 5);
+            }
+        });
+    }
+
+    @Test
+    public void testClientTicksDoNotAllocate()
+    {
+        soak("client ticks", EVENTS, true, events ->
+        {
+            for (int i = 0; i < events; i++)
+            {
+                nextCycle();
+                plugin.onClientTick(clientTick);
+                plugin.onBeforeRender(beforeRender);
+            }
+        });
+    }
+
+    @Test
+    public void testClickCyclesDoNotAllocate()
+    {
+        Rectangle bar = SpecBarStubs.SPEC_BAR_BOUNDS;
+        plugin.onMouseMoved(bar.x + 5, bar.y + 5);
+        soak("click cycles", EVENTS, true, events ->
+        {
+            for (int i = 0; i < events; i += 6)
+            {
+                // Confirmed by energy and animation, rejected by the chat message, or ignored and timed out
+                plugin.onMenuOptionClicked(specBarClick);
+                switch (i / 6 % 3)
+                {
+                    case 0:
+                        animation = boxed[SPEC_ANIMATION];
+                        plugin.onAnimationChanged(animationChanged);
+                        energyChanged.setValue(500);
+                        plugin.onVarbitChanged(energyChanged);
+                        energyChanged.setValue(1000);
+                        plugin.onVarbitChanged(energyChanged);
+                        break;
+                    case 1:
+                        plugin.onChatMessage(failMessage);
+                        break;
+                    default:
+                        for (int t = 0; t < ClickStateMachine.DETECTION_WINDOW_TICKS; t++)
+                        {
+                            nextTick();
+                        }
+                        break;
+                }
+                plugin.onMenuOptionClicked(walkClick);
+                nextTick();
+            }
+        });
+    }
+
+    @Test
+    public void testAnimationsAndChatDoNotAllocate()
+    {
+        soak("animations and chat", EVENTS, true, events ->
+        {
+            animation = boxed[OTHER_ANIMATION];
+            for (int i = 0; i < events; i += 4)
+            {
+                plugin.onAnimationChanged(animationChanged);
+                plugin.onGraphicChanged(graphicChanged);
+                plugin.onChatMessage(otherMessage);
+                plugin.onChatMessage(failMessage);
+            }
+        });
+    }
+
+    @Test
+    public void testRegenCountdownDoesNotAllocate()
+    {
+        soak("regen countdown", EVENTS, true, events ->
+        {
+            for (int i = 0; i < events; i++)
+            {
+                // Spent down to nothing, then a 10% step every regen interval up past the 50% threshold to full
+                if (i % SpecBarRegenTracker.REGEN_TICKS == 0)
+                {
+                    energy = energy == SpecBarRegenTracker.MAX_ENERGY ? 0 : energy + SpecBarRegenTracker.REGEN_AMOUNT;
+                    energyChanged.setValue(energy);
+                    plugin.onVarbitChanged(energyChanged);
+                }
+                nextTick();
+            }
+        });
+    }
+
+    @Test
+    public void testRenderingDoesNotAllocate()
+    {
+        Rectangle bar = SpecBarStubs.SPEC_BAR_BOUNDS;
+        soak("render", EVENTS / 20, true, events ->
+        {
+            for (int i = 0; i < events; i++)
+            {
+                // Switch state every few frames, so fades and the click pulse run too
+                if (i % 16 == 0)
+                {
+                    plugin.onMouseMoved(bar.x + 5, bar.y + 5);
+                }
+                else if (i % 16 == 5)
+                {
+                    plugin.onMenuOptionClicked(specBarClick);
+                }
+                else if (i % 16 == 12)
+                {
+                    plugin.onMenuOptionClicked(specBarClick);
+                    plugin.onMouseMoved(-1, -1);
+                }
+                nextCycle();
+                overlay.render(graphics);
+            }
+        });
+    }
+
+    @Test
+    public void testConfigChangesDoNotLeak()
+    {
+        SpecBarConfig.ColorPreset[] presets = SpecBarConfig.ColorPreset.values();
+        Rectangle bar = SpecBarStubs.SPEC_BAR_BOUNDS;
+        plugin.onMouseMoved(bar.x + 5, bar.y + 5);
+        // A new palette per change is expected; what matters is that old ones and their sprites are let go
+        soak("config changes", EVENTS / 20, false, events ->
+        {
+            for (int i = 0; i < events; i++)
+            {
+                preset = presets[i % presets.length];
+                plugin.onConfigChanged(presetChanged);
+                overlay.render(graphics);
+            }
+        });
+    }
+
+    @FunctionalInterface
+    private interface Phase
+    {
+        void run(int events);
+    }
+
+    private void soak(String name, int events, boolean steadyState, Phase phase)
+    {
+        // Warm up: JIT the handlers and Java2D's blit loops, fill the sprite caches and the recent snapshots
+        phase.run(Math.max(events / 5, 50_000));
+
+        long heapBefore = usedHeapAfterGc();
+        long threadId = Thread.currentThread().getId();
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        phase.run(events);
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        long retained = usedHeapAfterGc() - heapBefore;
+
+        double bytesPerEvent = (double) allocated / events;
+        String summary = String.format("%s: %,d events, %.1f ns/event, %.3f B/event, %,d B retained",
+            name, events, (double) elapsed / events, bytesPerEvent, retained);
+        log.info(summary);
+
+        if (steadyState)
+        {
+            assertTrue(summary + "; allocates more than " + MAX_BYTES_PER_EVENT + " B/event", bytesPerEvent <= MAX_BYTES_PER_EVENT);
+        }
+        assertTrue(summary + "; retains more than " + MAX_RETAINED_BYTES + " B", retained <= MAX_RETAINED_BYTES);
+    }
+
+    private long usedHeapAfterGc()
+    {
+        for (int i = 0; i < 3; i++)
+        {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    private void nextCycle()
+    {
+        cycle = (cycle + 1) % boxed.length;
+        gameCycle = boxed[cycle];
+    }
+
+    private void nextTick()
+    {
+        tick = (tick + 1) % boxed.length;
+        tickCount = boxed[tick];
+        plugin.onGameTick(gameTick);
+    }
+
+    private static MenuEntry menuEntry(MenuAction action, int param1)
+    {
+        Integer boxedParam1 = param1;
+        return SpecBarStubs.stub(MenuEntry.class, (method, args) ->
+        {
+            switch (method)
+            {
+                case "getOption": return "";
+                case "getTarget": return "";
+                case "getType": return action;
+                case "getParam1": return boxedParam1;
+                default: return SpecBarStubs.DEFAULT;
+            }
+        });
+    }
+}
@@ -0,0 +1,101 @@
+package com.specbar;
+
+import org.junit.Test;
+
+import static com.specbar.ClickStateMachine.*;
+import static org.junit.Assert.*;
+
+public class ClickStateMachineTest
+{
+    @Test
+    public void testHoverEnterAndExit()
+    {
+        ClickStateMachine machine = new ClickStateMachine();
+
+        machine.fire(EVENT_HOVER_ENTER, 0);
+        assertEquals(HOVER, machine.getState());
+
+        machine.fire(EVENT_HOVER_EXIT, 0);
+        assertEquals(IDLE, machine.getState());
+    }
+
+    @Test
+    public void testConfirmSuppressesHoverUntilSettled()
+    {
+        ClickStateMachine machine = new ClickStateMachine();
+        machine.fire(EVENT_HOVER_ENTER, 10);
+        machine.fire(EVENT_CLICK, 10);
+        assertEquals(PENDING, machine.getState());
+
+        machine.fire(EVENT_CONFIRM, 11);
+        assertEquals(CONFIRMED, machine.getState());
+
+        // Moving the mouse does not bring hover back while the click is settling
+        machine.fire(EVENT_HOVER_ENTER, 11);
+        assertEquals(CONFIRMED, machine.getState());
+        assertFalse(machine.isSettled(11));
+
+        assertTrue(machine.isSettled(11 + SETTLE_TICKS));
+        machine.fire(EVENT_SETTLE, 12);
+        assertEquals("Cursor is still over the bar", HOVER, machine.getState());
+    }
+
+    @Test
+    public void testCancelOnlyEndsAPendingClick()
+    {
+        ClickStateMachine machine = new ClickStateMachine();
+        machine.fire(EVENT_HOVER_ENTER, 0);
+        machine.fire(EVENT_CLICK, 0);
+        machine.fire(EVENT_CANCEL, 1);
+        assertEquals(HOVER, machine.getState());
+
+        machine.fire(EVENT_CLICK, 2);
+        machine.fire(EVENT_CONFIRM, 2);
+        machine.fire(EVENT_CANCEL, 2);
+        assertEquals(CONFIRMED, machine.getState());
+    }
+
+    @Test
+    public void testPendingTimesOutAfterDetectionWindow()
+    {
+        ClickStateMachine machine = new ClickStateMachine();
+        machine.fire(EVENT_CLICK, 100);
+
+        // Hover changes while pending must not restart the window
+        machine.fire(EVENT_HOVER_ENTER, 102);
+        machine.fire(EVENT_HOVER_EXIT, 103);
+
+        assertFalse(machine.isTimedOut(100 + DETECTION_WINDOW_TICKS - 1));
+        assertTrue(machine.isTimedOut(100 + DETECTION_WINDOW_TICKS));
+
+        machine.fire(EVENT_TIMEOUT, 105);
+        assertEquals(EXPIRED, machine.getState());
+    }
+
+    @Test
+    public void testClickingAgainTogglesOff()
+    {
+        ClickStateMachine machine = new ClickStateMachine();
+        machine.fire(EVENT_HOVER_ENTER, 0);
+        assertEquals(HOVER, machine.fire(EVENT_CLICK, 0));
+
+        assertEquals(PENDING, machine.fire(EVENT_CLICK, 1));
+        assertEquals(HOVER, machine.getState());
+    }
+
+    @Test
+    public void testFailureAndLateEventsAreIgnoredWhenNotPending()
+    {
+        ClickStateMachine machine = new ClickStateMachine();
+        machine.fire(EVENT_CONFIRM, 0);
+        machine.fire(EVENT_TIMEOUT, 0);
+        assertEquals(IDLE, machine.getState());
+
+        machine.fire(EVENT_CLICK, 1);
+        machine.fire(EVENT_FAIL, 2);
+        assertEquals(FAILED, machine.getState());
+
+        machine.fire(EVENT_CONFIRM, 2);
+        assertEquals(FAILED, machine.getState());
+    }
+}
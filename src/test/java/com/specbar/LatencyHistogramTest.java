@@ -0,0 +1,63 @@
+package com.specbar;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class LatencyHistogramTest
+{
+    @Test
+    public void testEmptyHistogram()
+    {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getPercentile(50));
+        assertEquals(0, histogram.getMean());
+    }
+
+    @Test
+    public void testPercentilesAreWithinBucketResolution()
+    {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 100; i++)
+        {
+            histogram.record(i * 1_000_000L); // 1ms .. 100ms
+        }
+
+        assertEquals(100, histogram.getCount());
+        assertWithin(50_000_000L, histogram.getPercentile(50));
+        assertWithin(95_000_000L, histogram.getPercentile(95));
+        assertWithin(99_000_000L, histogram.getPercentile(99));
+        assertEquals(50_500_000L, histogram.getMean());
+    }
+
+    @Test
+    public void testBucketBoundsRoundTrip()
+    {
+        for (long value : new long[]{0, 1, 7, 8, 9, 1000, 123_456_789L, Long.MAX_VALUE})
+        {
+            long lowerBound = LatencyHistogram.lowerBoundOf(LatencyHistogram.bucketOf(value));
+            assertTrue(value + " below its bucket", lowerBound <= value);
+            assertTrue(value + " too far above its bucket", value - lowerBound <= value / 4);
+        }
+    }
+
+    @Test
+    public void testReset()
+    {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(42);
+        histogram.reset();
+
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getPercentile(99));
+    }
+
+    private static void assertWithin(long expected, long actual)
+    {
+        // Reported values are bucket lower bounds, at most 25% below the real value
+        assertTrue("Expected ~" + expected + " but was " + actual,
+            actual <= expected && actual >= expected - expected / 4);
+    }
+}
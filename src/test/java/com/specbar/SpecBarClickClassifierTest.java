@@ -0,0 +1,47 @@
+package com.specbar;
+
+import net.runelite.api.MenuAction;
+import net.runelite.api.gameval.InterfaceID;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SpecBarClickClassifierTest
+{
+    @Test
+    public void testSpecBarClick()
+    {
+        assertEquals(SpecBarClickClassifier.CLICK_SPEC_BAR,
+            SpecBarClickClassifier.classify(MenuAction.CC_OP, InterfaceID.CombatInterface.SP_ATTACKBAR));
+    }
+
+    @Test
+    public void testSpecOrbClick()
+    {
+        assertEquals(SpecBarClickClassifier.CLICK_SPEC_ORB,
+            SpecBarClickClassifier.classify(MenuAction.CC_OP, InterfaceID.Orbs.SPECBUTTON));
+    }
+
+    @Test
+    public void testOtherOrbClicks()
+    {
+        assertEquals(SpecBarClickClassifier.CLICK_PRAYER_ORB,
+            SpecBarClickClassifier.classify(MenuAction.CC_OP, InterfaceID.Orbs.PRAYERBUTTON));
+        assertEquals(SpecBarClickClassifier.CLICK_RUN_ORB,
+            SpecBarClickClassifier.classify(MenuAction.CC_OP, InterfaceID.Orbs.RUNBUTTON));
+    }
+
+    @Test
+    public void testOtherClicks()
+    {
+        // Walking or examining while the cursor is over the bar is not a spec click
+        assertEquals(SpecBarClickClassifier.CLICK_OTHER,
+            SpecBarClickClassifier.classify(MenuAction.WALK, InterfaceID.CombatInterface.SP_ATTACKBAR));
+        assertEquals(SpecBarClickClassifier.CLICK_OTHER,
+            SpecBarClickClassifier.classify(MenuAction.EXAMINE_NPC, InterfaceID.CombatInterface.SP_ATTACKBAR));
+
+        // Interface ops on other components, e.g. an item whose name contains '%'
+        assertEquals(SpecBarClickClassifier.CLICK_OTHER,
+            SpecBarClickClassifier.classify(MenuAction.CC_OP, InterfaceID.CombatInterface.CURRENTENERGY_COLOUR));
+    }
+}
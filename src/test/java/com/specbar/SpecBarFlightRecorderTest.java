@@ -0,0 +1,128 @@
+package com.specbar;
+
+import net.runelite.api.MenuAction;
+import net.runelite.api.events.CanvasSizeChanged;
+import net.runelite.api.events.ClientTick;
+import net.runelite.api.events.MenuOptionClicked;
+import net.runelite.api.gameval.InterfaceID;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class SpecBarFlightRecorderTest
+{
+    private long now = 0;
+    private final SpecBarFlightRecorder recorder = new SpecBarFlightRecorder(() -> now);
+
+    @Test
+    public void testDescribeKeepsTheRequestedWindow()
+    {
+        recorder.record(SpecBarFlightRecorder.MENU_CLICK, 10, SpecBarClickClassifier.CLICK_SPEC_BAR, 1000);
+        now += TimeUnit.SECONDS.toNanos(30);
+        recorder.record(SpecBarFlightRecorder.CLICK_STATE, 60,
+            ClickStateMachine.EVENT_TIMEOUT << 16 | ClickStateMachine.PENDING << 8 | ClickStateMachine.EXPIRED, 1000);
+
+        List<String> lines = recorder.describe(TimeUnit.SECONDS.toNanos(10));
+        assertEquals(1, lines.size());
+        assertTrue(lines.get(0), lines.get(0).contains("timeout: pending -> expired"));
+        assertEquals(2, recorder.describe(TimeUnit.SECONDS.toNanos(60)).size());
+    }
+
+    @Test
+    public void testRingKeepsTheNewestRecords()
+    {
+        for (int i = 0; i < SpecBarFlightRecorder.CAPACITY + 10; i++)
+        {
+            recorder.record(SpecBarFlightRecorder.ANIMATION, i, i, 500);
+        }
+        List<String> lines = recorder.describe(Long.MAX_VALUE);
+        assertEquals(SpecBarFlightRecorder.CAPACITY, lines.size());
+        assertTrue(lines.get(0), lines.get(0).contains("tick 10 "));
+
+        recorder.flush();
+        // 10 lapped before the first flush, plus the oldest slot, which the writer could have been overwriting
+        assertEquals(11, recorder.getDropped());
+    }
+
+    @Test
+    public void testFlushesToTheMappedFile() throws IOException
+    {
+        File file = Files.createTempFile("flight-recorder", ".bin").toFile();
+        file.deleteOnExit();
+        recorder.start(file);
+        recorder.record(SpecBarFlightRecorder.GRAPHIC, 42, 1234, 550);
+        recorder.record(SpecBarFlightRecorder.SPEC_FAILED, 43, 0, 200);
+        recorder.stop();
+
+        try (RandomAccessFile in = new RandomAccessFile(file, "r"))
+        {
+            assertEquals(SpecBarFlightRecorder.MAGIC, in.readInt());
+            in.seek(SpecBarFlightRecorder.WRITTEN_OFFSET);
+            assertEquals(2, in.readLong());
+
+            in.seek(SpecBarFlightRecorder.HEADER_SIZE);
+            assertEquals(SpecBarFlightRecorder.GRAPHIC, in.readInt());
+            assertEquals(42, in.readInt());
+            in.readLong();
+            assertEquals(1234, in.readInt());
+            assertEquals(550, in.readInt());
+        }
+
+        // A later session appends after the earlier one
+        recorder.start(file);
+        recorder.record(SpecBarFlightRecorder.ENERGY, 44, 200, 300);
+        recorder.stop();
+        try (RandomAccessFile in = new RandomAccessFile(file, "r"))
+        {
+            in.seek(SpecBarFlightRecorder.WRITTEN_OFFSET);
+            assertEquals(3, in.readLong());
+        }
+    }
+
+    @Test
+    public void testDumpWritesTheRecordsAsOfTheCall() throws IOException, InterruptedException
+    {
+        File file = Files.createTempFile("flight-recorder", ".bin").toFile();
+        file.deleteOnExit();
+        File dump = Files.createTempFile("flight-recorder", ".txt").toFile();
+        dump.deleteOnExit();
+        recorder.start(file);
+        recorder.record(SpecBarFlightRecorder.MENU_CLICK, 10, SpecBarClickClassifier.CLICK_SPEC_BAR, 1000);
+        recorder.record(SpecBarFlightRecorder.ENERGY, 11, 1000, 750);
+
+        CountDownLatch done = new CountDownLatch(1);
+        recorder.dump(60, dump, message -> done.countDown());
+        // Formatted on the flush thread, from a copy taken by the call
+        recorder.record(SpecBarFlightRecorder.GRAPHIC, 12, 1234, 750);
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        recorder.stop();
+
+        List<String> lines = Files.readAllLines(dump.toPath());
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(1).contains("energy"));
+    }
+
+    @Test
+    public void testPluginRecordsNothingUntilEnabled()
+    {
+        SpecBarStubs.ClientState clientState = new SpecBarStubs.ClientState();
+        SpecBarPlugin plugin = SpecBarStubs.plugin(SpecBarStubs.client(clientState, SpecBarStubs.player(clientState)),
+            new SpecBarConfig() {});
+        plugin.onCanvasSizeChanged(new CanvasSizeChanged());
+        plugin.onClientTick(new ClientTick());
+        SpecBarStubs.inject(plugin, "flightRecorder", recorder);
+
+        plugin.onMenuOptionClicked(new MenuOptionClicked(
+            SpecBarStubs.menuEntry("", "", MenuAction.CC_OP, InterfaceID.CombatInterface.SP_ATTACKBAR)));
+        assertEquals(ClickStateMachine.PENDING, plugin.getClickState());
+        assertTrue("Flight Recorder is off by default", recorder.describe(Long.MAX_VALUE).isEmpty());
+    }
+}
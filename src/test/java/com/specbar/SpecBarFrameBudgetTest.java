@@ -0,0 +1,110 @@
+package com.specbar;
+
+import net.runelite.api.events.CanvasSizeChanged;
+import net.runelite.api.events.ClientTick;
+import org.junit.Test;
+
+import java.awt.Rectangle;
+
+import static org.junit.Assert.*;
+
+public class SpecBarFrameBudgetTest
+{
+    private long now = 0;
+    private final SpecBarFrameBudget budget = new SpecBarFrameBudget(() -> now);
+
+    @Test
+    public void testStepsDownOneLevelPerCheckAndRecovers()
+    {
+        budget.setBudgetMicros(100);
+        runFrames(SpecBarFrameBudget.EVALUATE_FRAMES, 150_000);
+        assertEquals(SpecBarFrameBudget.LEVEL_NO_TRANSITIONS, budget.getLevel());
+        runFrames(SpecBarFrameBudget.EVALUATE_FRAMES, 150_000);
+        runFrames(SpecBarFrameBudget.EVALUATE_FRAMES, 150_000);
+        runFrames(SpecBarFrameBudget.EVALUATE_FRAMES, 150_000);
+        assertEquals("Never past the last level", SpecBarFrameBudget.LEVEL_SLOW_HOVER, budget.getLevel());
+
+        // Between half the budget and the budget, nothing changes
+        runFrames(SpecBarFrameBudget.WINDOW * SpecBarFrameBudget.SAMPLE_INTERVAL, 80_000);
+        assertEquals(SpecBarFrameBudget.LEVEL_SLOW_HOVER, budget.getLevel());
+
+        // Well under, recovering a level at a time
+        int level = budget.getLevel();
+        for (int i = 0; i < 20 && level > SpecBarFrameBudget.LEVEL_FULL; i++)
+        {
+            runFrames(SpecBarFrameBudget.EVALUATE_FRAMES, 10_000);
+            assertTrue(budget.getLevel() >= level - 1);
+            level = budget.getLevel();
+        }
+        assertEquals(SpecBarFrameBudget.LEVEL_FULL, level);
+
+        runFrames(SpecBarFrameBudget.WINDOW * SpecBarFrameBudget.SAMPLE_INTERVAL, 150_000);
+        assertTrue("Over again", budget.getLevel() > SpecBarFrameBudget.LEVEL_FULL);
+        budget.setBudgetMicros(0);
+        assertEquals("Turning the check off restores full rendering", SpecBarFrameBudget.LEVEL_FULL, budget.getLevel());
+        assertEquals(SpecBarFrameBudget.NOT_SAMPLED, budget.start(SpecBarFrameBudget.CLIENT_TICK));
+    }
+
+    @Test
+    public void testOnlyEveryNthCallIsTimed()
+    {
+        budget.setBudgetMicros(100);
+        int sampled = 0;
+        for (int i = 0; i < SpecBarFrameBudget.SAMPLE_INTERVAL * 4; i++)
+        {
+            if (budget.start(SpecBarFrameBudget.OVERLAY_RENDER) != SpecBarFrameBudget.NOT_SAMPLED)
+            {
+                sampled++;
+            }
+        }
+        assertEquals(4, sampled);
+    }
+
+    @Test
+    public void testIdleBorderIsDroppedWhenDegraded()
+    {
+        SpecBarStubs.ClientState clientState = new SpecBarStubs.ClientState();
+        SpecBarPlugin plugin = SpecBarStubs.plugin(SpecBarStubs.client(clientState, SpecBarStubs.player(clientState)),
+            new SpecBarConfig()
+            {
+                @Override
+                public boolean enableIdleBorder()
+                {
+                    return true;
+                }
+            }, () -> now);
+        plugin.onCanvasSizeChanged(new CanvasSizeChanged());
+        plugin.onClientTick(new ClientTick());
+        assertEquals(SpecBarSpriteCache.STATE_IDLE, plugin.getState().getRenderState(SpecBarHitboxes.SPEC_BAR));
+
+        SpecBarFrameBudget pluginBudget = plugin.getFrameBudget();
+        pluginBudget.setBudgetMicros(1);
+        while (pluginBudget.getLevel() < SpecBarFrameBudget.LEVEL_SLOW_HOVER)
+        {
+            // Every client tick costs 1ms
+            long start = pluginBudget.start(SpecBarFrameBudget.CLIENT_TICK);
+            now += 1_000_000;
+            pluginBudget.end(SpecBarFrameBudget.CLIENT_TICK, start);
+            plugin.onClientTick(new ClientTick());
+        }
+        assertSame(SpecBarState.EMPTY, plugin.getState());
+
+        // Hover still works, but is only rechecked on the next client tick
+        Rectangle bar = SpecBarStubs.SPEC_BAR_BOUNDS;
+        plugin.onMouseMoved(bar.x + 1, bar.y + 1);
+        assertSame(SpecBarState.EMPTY, plugin.getState());
+        plugin.onClientTick(new ClientTick());
+        assertEquals(SpecBarSpriteCache.STATE_HOVER, plugin.getState().getRenderState(SpecBarHitboxes.SPEC_BAR));
+    }
+
+    private void runFrames(int frames, long frameNanos)
+    {
+        for (int i = 0; i < frames; i++)
+        {
+            long start = budget.start(SpecBarFrameBudget.CLIENT_TICK);
+            now += frameNanos;
+            budget.end(SpecBarFrameBudget.CLIENT_TICK, start);
+            budget.frame();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.specbar;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class SpecBarJfrTest
+{
+    @Test
+    public void testEventsAreRecordedOnlyWhenEnabled() throws IOException
+    {
+        Path file = Files.createTempFile("spec-bar", ".jfr");
+        file.toFile().deleteOnExit();
+
+        SpecBarJfr.start();
+        try (Recording recording = new Recording())
+        {
+            // Disabled by default: only the enabled event makes it into the recording
+            recording.enable("com.specbar.Confirm");
+            recording.start();
+            SpecBarJfr.click(SpecBarHitboxes.SPEC_BAR, false, 0, 1000);
+            SpecBarJfr.confirmed(SpecBarJfr.SOURCE_ANIMATION, 1062, 600_000_000L, 1000);
+            SpecBarJfr.renderFinished(SpecBarJfr.renderStarted(), SpecBarSpriteCache.STATE_CLICK, 0, false);
+            recording.stop();
+            recording.dump(file);
+        }
+        finally
+        {
+            SpecBarJfr.stop();
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        assertEquals(1, events.size());
+        RecordedEvent confirm = events.get(0);
+        assertEquals("com.specbar.Confirm", confirm.getEventType().getName());
+        assertEquals(SpecBarJfr.SOURCE_ANIMATION, confirm.getString("source"));
+        assertEquals(1062, confirm.getInt("id"));
+        assertEquals(600, confirm.getDuration("sinceClick").toMillis());
+    }
+
+    @Test
+    public void testNothingIsCreatedUnlessARecordingEnablesIt()
+    {
+        SpecBarJfr.start();
+        try
+        {
+            assertNull(SpecBarJfr.renderStarted());
+            try (Recording recording = new Recording())
+            {
+                recording.enable("com.specbar.Confirm");
+                recording.start();
+                assertNull("Another event being enabled is not enough", SpecBarJfr.renderStarted());
+                recording.stop();
+            }
+            try (Recording recording = new Recording())
+            {
+                recording.enable("com.specbar.Render");
+                recording.start();
+                assertNotNull(SpecBarJfr.renderStarted());
+                recording.stop();
+            }
+            assertNull(SpecBarJfr.renderStarted());
+        }
+        finally
+        {
+            SpecBarJfr.stop();
+        }
+    }
+}
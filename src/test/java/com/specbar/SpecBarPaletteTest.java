@@ -0,0 +1,131 @@
+package com.specbar;
+
+import org.junit.Test;
+
+import java.awt.Color;
+
+import static org.junit.Assert.*;
+
+public class SpecBarPaletteTest
+{
+    private static final Color CUSTOM_HOVER = new Color(1, 2, 3, 4);
+
+    @Test
+    public void testCustomPresetUsesConfigColors()
+    {
+        SpecBarPalette palette = SpecBarPalette.from(config(SpecBarConfig.ColorPreset.CUSTOM));
+        assertEquals(CUSTOM_HOVER, palette.getHoverAreaColor());
+        assertEquals(new SpecBarConfig() {}.idleBorderColor(), palette.getIdleBorderColor());
+    }
+
+    @Test
+    public void testPresetOverridesWithoutConfigWrites()
+    {
+        SpecBarConfig config = config(SpecBarConfig.ColorPreset.NATURE_GREEN);
+        SpecBarPalette palette = SpecBarPalette.from(config);
+
+        assertEquals(new Color(144, 238, 144, 120), palette.getHoverAreaColor());
+        assertEquals(new Color(0, 100, 0, 255), palette.getClickBorderColor());
+        assertEquals("The custom color is kept for switching back", CUSTOM_HOVER, config.hoverAreaColor());
+    }
+
+    @Test
+    public void testEveryPresetHasAllColors()
+    {
+        for (SpecBarConfig.ColorPreset preset : SpecBarConfig.ColorPreset.values())
+        {
+            Color[] colors = SpecBarPresets.colors(preset);
+            if (preset == SpecBarConfig.ColorPreset.CUSTOM)
+            {
+                assertNull(colors);
+                continue;
+            }
+
+            assertEquals(preset.name(), 8, colors.length);
+            for (Color color : colors)
+            {
+                assertNotNull(preset.name(), color);
+            }
+        }
+    }
+
+    @Test
+    public void testPresetColorsCannotBeChangedByCallers()
+    {
+        Color[] colors = SpecBarPresets.colors(SpecBarConfig.ColorPreset.CLASSIC_BLUE);
+        Color hover = colors[SpecBarPresets.HOVER_AREA];
+        colors[SpecBarPresets.HOVER_AREA] = Color.BLACK;
+
+        assertEquals(hover, SpecBarPresets.colors(SpecBarConfig.ColorPreset.CLASSIC_BLUE)[SpecBarPresets.HOVER_AREA]);
+    }
+
+    @Test
+    public void testOrbsCanHaveTheirOwnColors()
+    {
+        SpecBarPalette shared = SpecBarPalette.from(config(SpecBarConfig.ColorPreset.CUSTOM));
+        assertEquals(CUSTOM_HOVER, shared.getAreaColor(SpecBarHitboxes.SPEC_ORB, SpecBarSpriteCache.STATE_HOVER));
+
+        SpecBarConfig defaults = new SpecBarConfig() {};
+        SpecBarPalette separate = SpecBarPalette.from(new SpecBarConfig()
+        {
+            @Override
+            public boolean customOrbColors()
+            {
+                return true;
+            }
+        });
+        assertEquals(defaults.hoverAreaColor(), separate.getAreaColor(SpecBarHitboxes.SPEC_BAR, SpecBarSpriteCache.STATE_HOVER));
+        assertEquals(defaults.orbHoverAreaColor(), separate.getAreaColor(SpecBarHitboxes.SPEC_ORB, SpecBarSpriteCache.STATE_HOVER));
+        assertEquals(defaults.orbClickBorderColor(), separate.getBorderColor(SpecBarHitboxes.RUN_ORB, SpecBarSpriteCache.STATE_CLICK));
+        assertEquals("Idle is shared", defaults.idleAreaColor(), separate.getAreaColor(SpecBarHitboxes.PRAYER_ORB, SpecBarSpriteCache.STATE_IDLE));
+    }
+
+    @Test
+    public void testTransitionRamps()
+    {
+        assertSame(SpecBarTransitions.NONE, SpecBarPalette.from(new SpecBarConfig() {}).getTransitions());
+        assertEquals(0, SpecBarTransitions.NONE.getFadeCycles());
+        assertEquals(SpecBarTransitions.STEPS, SpecBarTransitions.NONE.fadeStep(0));
+
+        SpecBarTransitions transitions = SpecBarPalette.from(new SpecBarConfig()
+        {
+            @Override
+            public Transition transition()
+            {
+                return Transition.FADE_AND_PULSE;
+            }
+        }).getTransitions();
+        assertEquals("150ms of 20ms cycles", 8, transitions.getFadeCycles());
+        int previous = 0;
+        for (int cycle = 0; cycle < transitions.getFadeCycles(); cycle++)
+        {
+            int step = transitions.fadeStep(cycle);
+            assertTrue("Fades in steadily", step > 0 && step >= previous && step <= SpecBarTransitions.STEPS);
+            previous = step;
+        }
+        assertEquals(SpecBarTransitions.STEPS, transitions.fadeStep(transitions.getFadeCycles()));
+
+        assertEquals(SpecBarTransitions.STEPS, transitions.pulseStep(0));
+        assertEquals(SpecBarTransitions.STEPS / 2, transitions.pulseStep(SpecBarTransitions.PULSE_CYCLES / 2));
+        assertEquals(transitions.pulseStep(1), transitions.pulseStep(SpecBarTransitions.PULSE_CYCLES + 1));
+        assertSame("Pooled", SpecBarTransitions.composite(3), SpecBarTransitions.composite(3));
+    }
+
+    private static SpecBarConfig config(SpecBarConfig.ColorPreset preset)
+    {
+        return new SpecBarConfig()
+        {
+            @Override
+            public ColorPreset colorPreset()
+            {
+                return preset;
+            }
+
+            @Override
+            public Color hoverAreaColor()
+            {
+                return CUSTOM_HOVER;
+            }
+        };
+    }
+}
@@ -48,6 +48,8 @@ public class SpecBarPluginTest
         
         // Test color preset setting
         assertEquals(SpecBarConfig.ColorPreset.CUSTOM, config.colorPreset());
+
+        assertEquals("The frame budget is opt-in", 0, config.frameBudget());
     }
 
     @Test
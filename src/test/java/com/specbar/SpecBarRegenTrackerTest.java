@@ -0,0 +1,126 @@
+package com.specbar;
+
+import net.runelite.api.events.CanvasSizeChanged;
+import net.runelite.api.events.ClientTick;
+import net.runelite.api.events.GameTick;
+import net.runelite.api.events.VarbitChanged;
+import net.runelite.api.gameval.VarPlayerID;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SpecBarRegenTrackerTest
+{
+    private final SpecBarRegenTracker regen = new SpecBarRegenTracker();
+    private final SpecBarStubs.ClientState clientState = new SpecBarStubs.ClientState();
+
+    @Test
+    public void testUnknownPhaseIsAnUpperBound()
+    {
+        regen.energyChanged(250, 1000);
+        // 3 steps to 50%: a full interval for the first, since the timer phase is unknown
+        assertEquals(3 * SpecBarRegenTracker.REGEN_TICKS, regen.ticksUntil(500, 1000));
+        assertEquals("50% in ~1:30", regen.getEtaText());
+    }
+
+    @Test
+    public void testRegenStepFixesThePhase()
+    {
+        regen.energyChanged(200, 1000);
+        regen.energyChanged(300, 1010);
+        assertEquals(SpecBarRegenTracker.REGEN_TICKS + SpecBarRegenTracker.REGEN_TICKS, regen.ticksUntil(500, 1010));
+
+        regen.tick(1030);
+        assertEquals(30 + SpecBarRegenTracker.REGEN_TICKS, regen.ticksUntil(500, 1030));
+        assertEquals("50% in 0:48", regen.getEtaText());
+        assertEquals("300 energy plus 20 of 50 ticks towards the next 10%", 0.68, regen.getProgress(), 0.001);
+
+        // A spec pool restore is not a regen step
+        regen.energyChanged(1000, 1040);
+        assertEquals(0, regen.ticksUntil(500, 1040));
+        assertEquals("50% ready", regen.getEtaText());
+    }
+
+    @Test
+    public void testTextIsOnlyFormattedWhenTheShownSecondChanges()
+    {
+        regen.energyChanged(300, 0);
+        regen.energyChanged(400, 10);
+
+        regen.tick(57);
+        String text = regen.getEtaText();
+        assertEquals("50% in 0:02", text);
+        regen.tick(58);
+        assertSame("1.8s and 1.2s both show as 2s", text, regen.getEtaText());
+        regen.tick(59);
+        assertEquals("50% in 0:01", regen.getEtaText());
+    }
+
+    @Test
+    public void testLightbearerHalvesTheInterval()
+    {
+        regen.energyChanged(0, 0);
+        regen.energyChanged(100, 10);
+        regen.setLightbearer(true, 10);
+        assertEquals(4 * SpecBarRegenTracker.LIGHTBEARER_REGEN_TICKS, regen.ticksUntil(500, 10));
+    }
+
+    @Test
+    public void testThresholdAndReset()
+    {
+        regen.setThreshold(100);
+        regen.energyChanged(900, 0);
+        assertEquals("100% in ~0:30", regen.getEtaText());
+
+        regen.reset();
+        assertFalse(regen.hasEnergy());
+        assertEquals(-1, regen.ticksUntil(500, 0));
+        assertNull(regen.getEtaText());
+    }
+
+    @Test
+    public void testPluginOnlyFeedsTheTrackerWhileShown()
+    {
+        clientState.varps[VarPlayerID.SA_ENERGY] = 400;
+        SpecBarPlugin hidden = plugin(new SpecBarConfig() {});
+        SpecBarRegenTracker idle = new SpecBarRegenTracker();
+        SpecBarStubs.inject(hidden, "regen", idle);
+        hidden.onGameTick(new GameTick());
+        varp(hidden, VarPlayerID.SA_ENERGY, 500);
+        assertFalse("Off by default", idle.hasEnergy());
+
+        clientState.varps[VarPlayerID.SA_ENERGY] = 400;
+
+        SpecBarPlugin shown = plugin(new SpecBarConfig()
+        {
+            @Override
+            public RegenDisplay regenDisplay()
+            {
+                return RegenDisplay.TEXT;
+            }
+        });
+        SpecBarRegenTracker tracker = new SpecBarRegenTracker();
+        SpecBarStubs.inject(shown, "regen", tracker);
+        shown.onGameTick(new GameTick());
+        assertTrue(tracker.hasEnergy());
+        assertEquals("50% in ~0:30", tracker.getEtaText());
+    }
+
+    private SpecBarPlugin plugin(SpecBarConfig config)
+    {
+        SpecBarPlugin plugin = SpecBarStubs.plugin(SpecBarStubs.client(clientState, SpecBarStubs.player(clientState)), config);
+        plugin.onCanvasSizeChanged(new CanvasSizeChanged());
+        plugin.onClientTick(new ClientTick());
+        return plugin;
+    }
+
+    private void varp(SpecBarPlugin plugin, int varpId, int value)
+    {
+        clientState.varps[varpId] = value;
+        VarbitChanged event = new VarbitChanged();
+        event.setVarpId(varpId);
+        event.setVarbitId(-1);
+        event.setValue(value);
+        plugin.onVarbitChanged(event);
+    }
+}
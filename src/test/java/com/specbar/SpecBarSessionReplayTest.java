@@ -0,0 +1,246 @@
+package com.specbar;
+
+import net.runelite.api.ChatMessageType;
+import net.runelite.api.MenuAction;
+import net.runelite.api.gameval.InterfaceID;
+import net.runelite.api.gameval.VarPlayerID;
+import org.junit.Test;
+
+import java.awt.Rectangle;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+
+import static org.junit.Assert.*;
+
+/**
+ * Replays recorded sessions through a headless plugin. Sessions recorded in game with
+ * "Record Sessions" can be dropped into src/test/resources/com/specbar/sessions to become regression tests.
+ */
+public class SpecBarSessionReplayTest
+{
+    private static final int BAR_X = SpecBarStubs.SPEC_BAR_BOUNDS.x + 10;
+    private static final int BAR_Y = SpecBarStubs.SPEC_BAR_BOUNDS.y + 10;
+
+    private long nanos = 0;
+
+    @Test
+    public void testClickConfirmedByEnergyDrop() throws IOException
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        SpecBarSessionRecorder recorder = new SpecBarSessionRecorder(bytes, () -> nanos);
+        Rectangle bar = SpecBarStubs.SPEC_BAR_BOUNDS;
+
+        recorder.varp(100, VarPlayerID.SA_ENERGY, 1000);
+        recorder.layout(100, bar.x, bar.y, bar.width, bar.height);
+        clientTicks(recorder, 100, 2);
+        recorder.mouse(100, BAR_X, BAR_Y);
+        recorder.menuClick(100, MenuAction.CC_OP.getId(), InterfaceID.CombatInterface.SP_ATTACKBAR);
+        recorder.gameTick(101);
+        recorder.varp(101, VarPlayerID.SA_ENERGY, 750);
+        recorder.gameTick(102);
+        recorder.close();
+
+        SpecBarSessionReplayer replayer = new SpecBarSessionReplayer(new SpecBarConfig() {});
+        assertEquals(9, replayer.replay(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertEquals("Hover returns once the confirmed click settles",
+            ClickStateMachine.HOVER, replayer.getPlugin().getClickState());
+        assertEquals(1, replayer.getPlugin().getLatency().getClickToConfirm().getCount());
+        assertTrue(replayer.getLongestPendingTicks() < ClickStateMachine.DETECTION_WINDOW_TICKS);
+    }
+
+    @Test
+    public void testUnconfirmedClickExpires() throws IOException
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        SpecBarSessionRecorder recorder = new SpecBarSessionRecorder(bytes, () -> nanos);
+
+        recorder.menuClick(10, MenuAction.CC_OP.getId(), InterfaceID.Orbs.SPECBUTTON);
+        for (int tick = 11; tick <= 20; tick++)
+        {
+            recorder.gameTick(tick);
+        }
+        recorder.chat(20, ChatMessageType.GAMEMESSAGE.getType(), "You don't have enough power left.");
+        recorder.close();
+
+        SpecBarSessionReplayer replayer = new SpecBarSessionReplayer(new SpecBarConfig() {});
+        replayer.replay(new ByteArrayInputStream(bytes.toByteArray()));
+
+        assertEquals(ClickStateMachine.IDLE, replayer.getPlugin().getClickState());
+        assertEquals("Expires on the last tick of the detection window",
+            ClickStateMachine.DETECTION_WINDOW_TICKS - 1, replayer.getLongestPendingTicks());
+        assertEquals(1, replayer.getPlugin().getLatency().getClickToTimeout().getCount());
+        assertEquals("A failure after the timeout is not a confirmation",
+            0, replayer.getPlugin().getLatency().getClickToConfirm().getCount());
+    }
+
+    @Test
+    public void testArmedSpecHeldPastTheWindowIsNotAStuckClick() throws IOException
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        SpecBarSessionRecorder recorder = new SpecBarSessionRecorder(bytes, () -> nanos);
+
+        recorder.varp(10, VarPlayerID.SA_ENERGY, 1000);
+        recorder.gameTick(10);
+        recorder.menuClick(10, MenuAction.CC_OP.getId(), InterfaceID.CombatInterface.SP_ATTACKBAR);
+        recorder.varp(10, VarPlayerID.SA_ATTACK, 1);
+        // Armed while walking up to the target
+        for (int tick = 11; tick <= 10 + 3 * ClickStateMachine.DETECTION_WINDOW_TICKS; tick++)
+        {
+            recorder.gameTick(tick);
+        }
+        int attack = 11 + 3 * ClickStateMachine.DETECTION_WINDOW_TICKS;
+        recorder.varp(attack, VarPlayerID.SA_ENERGY, 750);
+        recorder.varp(attack, VarPlayerID.SA_ATTACK, 0);
+        recorder.gameTick(attack);
+        recorder.close();
+
+        SpecBarSessionReplayer replayer = new SpecBarSessionReplayer(new SpecBarConfig() {});
+        replayer.replay(new ByteArrayInputStream(bytes.toByteArray()));
+
+        assertEquals(0, replayer.getLongestPendingTicks());
+        assertEquals(1, replayer.getPlugin().getLatency().getClickToConfirm().getCount());
+        assertEquals(0, replayer.getPlugin().getLatency().getClickToTimeout().getCount());
+    }
+
+    @Test
+    public void testUnaffordableClickIsPredictedFromTheRecordedWeapon() throws IOException
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        SpecBarSessionRecorder recorder = new SpecBarSessionRecorder(bytes, () -> nanos);
+
+        recorder.equipment(10, 13652, -1); // Dragon claws, 50%
+        recorder.varp(10, VarPlayerID.SA_ENERGY, 400);
+        recorder.gameTick(10);
+        recorder.menuClick(10, MenuAction.CC_OP.getId(), InterfaceID.CombatInterface.SP_ATTACKBAR);
+        recorder.close();
+
+        SpecBarSessionReplayer replayer = new SpecBarSessionReplayer(new SpecBarConfig() {});
+        replayer.replay(new ByteArrayInputStream(bytes.toByteArray()));
+
+        assertEquals("Failed without waiting for the server, as it did live",
+            ClickStateMachine.FAILED, replayer.getPlugin().getClickState());
+    }
+
+    @Test
+    public void testRecordedUnaffordableClickIsNeverPending() throws IOException
+    {
+        SpecBarSessionReplayer replayer = new SpecBarSessionReplayer(new SpecBarConfig() {});
+        try (InputStream in = getClass().getResourceAsStream("sessions/unaffordable-click.sbs"))
+        {
+            assertNotNull(in);
+            replayer.replay(in);
+        }
+        assertEquals(0, replayer.getLongestPendingTicks());
+    }
+
+    @Test
+    public void testWhipAttackDoesNotConfirmAClick() throws IOException
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        SpecBarSessionRecorder recorder = new SpecBarSessionRecorder(bytes, () -> nanos);
+        Rectangle bar = SpecBarStubs.SPEC_BAR_BOUNDS;
+
+        recorder.varp(100, VarPlayerID.SA_ENERGY, 1000);
+        recorder.layout(100, bar.x, bar.y, bar.width, bar.height);
+        clientTicks(recorder, 100, 2);
+        recorder.mouse(100, BAR_X, BAR_Y);
+        recorder.menuClick(100, MenuAction.CC_OP.getId(), InterfaceID.CombatInterface.SP_ATTACKBAR);
+        recorder.gameTick(101);
+        // A regular whip attack, not the spec
+        recorder.animation(101, 1658);
+        recorder.close();
+
+        SpecBarSessionReplayer replayer = new SpecBarSessionReplayer(new SpecBarConfig() {});
+        replayer.replay(new ByteArrayInputStream(bytes.toByteArray()));
+        assertEquals(ClickStateMachine.PENDING, replayer.getPlugin().getClickState());
+
+        // The spec itself also shows its graphic
+        ByteArrayOutputStream spec = new ByteArrayOutputStream();
+        recorder = new SpecBarSessionRecorder(spec, () -> nanos);
+        recorder.graphic(102, 341);
+        recorder.close();
+        replayer.replay(new ByteArrayInputStream(spec.toByteArray()));
+        assertEquals(ClickStateMachine.CONFIRMED, replayer.getPlugin().getClickState());
+    }
+
+    @Test
+    public void testRecordedPressesAreShownEarlyAndRolledBack() throws IOException
+    {
+        // One press answered by "Walk here", one with no menu action at all
+        SpecBarSessionReplayer replayer = new SpecBarSessionReplayer(new SpecBarConfig()
+        {
+            @Override
+            public boolean instantClickFeedback()
+            {
+                return true;
+            }
+        });
+        try (InputStream in = getClass().getResourceAsStream("sessions/rolled-back-press.sbs"))
+        {
+            assertNotNull(in);
+            replayer.replay(in);
+        }
+
+        SpecBarPlugin plugin = replayer.getPlugin();
+        assertEquals(2, replayer.getProvisionalClicks());
+        assertEquals("Both presses were rolled back",
+            SpecBarSpriteCache.STATE_HOVER, plugin.getState().getRenderState(SpecBarHitboxes.SPEC_BAR));
+        assertEquals(ClickStateMachine.HOVER, plugin.getClickState());
+        assertEquals(0, plugin.getLatency().getClickToConfirm().getCount());
+    }
+
+    @Test
+    public void testSessionLongerThanOneBufferKeepsEveryRecord() throws IOException
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        SpecBarSessionRecorder recorder = new SpecBarSessionRecorder(bytes, () -> nanos);
+
+        // A few bytes per tick, so the recording spans several buffers
+        int ticks = 100_000;
+        for (int tick = 1; tick <= ticks; tick++)
+        {
+            recorder.gameTick(tick);
+        }
+        recorder.close();
+
+        SpecBarSessionReplayer replayer = new SpecBarSessionReplayer(new SpecBarConfig() {});
+        assertEquals(ticks, replayer.replay(new ByteArrayInputStream(bytes.toByteArray())));
+    }
+
+    @Test
+    public void testRecordedSessions() throws IOException
+    {
+        URL directory = getClass().getResource("sessions");
+        File[] sessions = directory == null ? null : new File(directory.getPath()).listFiles((dir, name) -> name.endsWith(".sbs"));
+        if (sessions == null)
+        {
+            return;
+        }
+
+        for (File session : sessions)
+        {
+            SpecBarSessionReplayer replayer = new SpecBarSessionReplayer(new SpecBarConfig() {});
+            try (InputStream in = new FileInputStream(session))
+            {
+                replayer.replay(in);
+            }
+            assertTrue(session.getName() + " left a click pending past the detection window",
+                replayer.getLongestPendingTicks() < ClickStateMachine.DETECTION_WINDOW_TICKS);
+        }
+    }
+
+    private void clientTicks(SpecBarSessionRecorder recorder, int tick, int count)
+    {
+        for (int i = 0; i < count; i++)
+        {
+            nanos += 20_000_000L;
+            recorder.clientTick(tick);
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.specbar;
+
+import net.runelite.api.ChatMessageType;
+import net.runelite.api.Client;
+import net.runelite.api.MenuAction;
+import net.runelite.api.Player;
+import net.runelite.api.events.AnimationChanged;
+import net.runelite.api.events.CanvasSizeChanged;
+import net.runelite.api.events.ChatMessage;
+import net.runelite.api.events.ClientTick;
+import net.runelite.api.events.GameTick;
+import net.runelite.api.events.GraphicChanged;
+import net.runelite.api.events.ItemContainerChanged;
+import net.runelite.api.events.MenuOptionClicked;
+import net.runelite.api.events.VarbitChanged;
+import net.runelite.api.gameval.InventoryID;
+import net.runelite.api.gameval.VarPlayerID;
+
+import java.awt.Rectangle;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Feeds a recorded {@link SpecBarSession} back into a headless {@link SpecBarPlugin}, as fast as it
+ * can be read. The stub client and the plugin's clock follow the recorded ticks and timestamps, so a
+ * replay is deterministic.
+ */
+class SpecBarSessionReplayer implements SpecBarSession.Visitor
+{
+    private final SpecBarStubs.ClientState state = new SpecBarStubs.ClientState();
+    private final Player localPlayer = SpecBarStubs.player(state);
+    private final Client client = SpecBarStubs.client(state, localPlayer);
+    private final SpecBarPlugin plugin;
+
+    private final ClientTick clientTick = new ClientTick();
+    private final GameTick gameTick = new GameTick();
+    private final CanvasSizeChanged canvasSizeChanged = new CanvasSizeChanged();
+
+    private long nanos;
+    private long eventCount;
+    private int longestPendingTicks;
+    private int pendingSinceTick = -1;
+    private int provisionalClicks;
+
+    SpecBarSessionReplayer(SpecBarConfig config)
+    {
+        plugin = SpecBarStubs.plugin(client, config, () -> nanos);
+        plugin.onCanvasSizeChanged(canvasSizeChanged);
+    }
+
+    /**
+     * Replays every record in {@code in}.
+     *
+     * @return the number of events replayed
+     */
+    long replay(InputStream in) throws IOException
+    {
+        long before = eventCount;
+        SpecBarSession.read(in, this);
+        return eventCount - before;
+    }
+
+    SpecBarPlugin getPlugin()
+    {
+        return plugin;
+    }
+
+    /**
+     * The longest run of game ticks the plugin spent in the pending click state with the spec not armed.
+     * An armed spec stays pending until the player attacks, however long that takes, so those ticks do not count.
+     */
+    int getLongestPendingTicks()
+    {
+        return longestPendingTicks;
+    }
+
+    /**
+     * The number of recorded presses that were shown as a click ahead of their menu action.
+     */
+    int getProvisionalClicks()
+    {
+        return provisionalClicks;
+    }
+
+    @Override
+    public void at(long nanos, int tick)
+    {
+        this.nanos = nanos;
+        state.tickCount = tick;
+        eventCount++;
+    }
+
+    @Override
+    public void clientTick()
+    {
+        state.gameCycle++;
+        plugin.onClientTick(clientTick);
+    }
+
+    @Override
+    public void gameTick()
+    {
+        plugin.onGameTick(gameTick);
+        trackPending();
+    }
+
+    @Override
+    public void menuClick(int menuActionId, int param1)
+    {
+        MenuAction action = MenuAction.of(menuActionId);
+        plugin.onMenuOptionClicked(new MenuOptionClicked(SpecBarStubs.menuEntry("", "", action, param1)));
+        trackPending();
+    }
+
+    @Override
+    public void varp(int varpId, int value)
+    {
+        state.varps[varpId] = value;
+        VarbitChanged event = new VarbitChanged();
+        event.setVarpId(varpId);
+        event.setVarbitId(-1);
+        event.setValue(value);
+        plugin.onVarbitChanged(event);
+    }
+
+    @Override
+    public void animation(int animationId)
+    {
+        state.animation = animationId;
+        AnimationChanged event = new AnimationChanged();
+        event.setActor(localPlayer);
+        plugin.onAnimationChanged(event);
+    }
+
+    @Override
+    public void graphic(int graphicId)
+    {
+        state.graphic = graphicId;
+        GraphicChanged event = new GraphicChanged();
+        event.setActor(localPlayer);
+        plugin.onGraphicChanged(event);
+    }
+
+    @Override
+    public void chat(int chatMessageType, String message)
+    {
+        ChatMessage event = new ChatMessage();
+        event.setType(ChatMessageType.of(chatMessageType));
+        event.setMessage(message);
+        plugin.onChatMessage(event);
+    }
+
+    @Override
+    public void mouse(int x, int y)
+    {
+        plugin.onMouseMoved(x, y);
+    }
+
+    @Override
+    public void mousePress(int x, int y)
+    {
+        plugin.onMousePressed(x, y);
+        if (plugin.getClickState() == ClickStateMachine.PENDING)
+        {
+            return;
+        }
+
+        SpecBarState shown = plugin.getState();
+        for (int target = 0; target < SpecBarHitboxes.TARGET_COUNT; target++)
+        {
+            Rectangle bounds = shown.getBounds(target);
+            if (bounds != null && bounds.contains(x, y) && shown.getRenderState(target) == SpecBarSpriteCache.STATE_CLICK)
+            {
+                provisionalClicks++;
+            }
+        }
+    }
+
+    @Override
+    public void layout(int x, int y, int width, int height)
+    {
+        Rectangle bounds = width < 0 ? null : new Rectangle(x, y, width, height);
+        state.specBarBounds = bounds;
+        // Picked up by the next recorded client tick, as it was live
+        plugin.onCanvasSizeChanged(canvasSizeChanged);
+    }
+
+    @Override
+    public void equipment(int weaponId, int ringId)
+    {
+        state.weapon = weaponId;
+        state.ring = ringId;
+        plugin.onItemContainerChanged(new ItemContainerChanged(InventoryID.WORN, SpecBarStubs.equipment(state)));
+    }
+
+    private void trackPending()
+    {
+        if (plugin.getClickState() != ClickStateMachine.PENDING || state.varps[VarPlayerID.SA_ATTACK] == 1)
+        {
+            pendingSinceTick = -1;
+            return;
+        }
+
+        if (pendingSinceTick == -1)
+        {
+            pendingSinceTick = state.tickCount;
+        }
+        longestPendingTicks = Math.max(longestPendingTicks, state.tickCount - pendingSinceTick);
+    }
+}
@@ -0,0 +1,323 @@
+package com.specbar;
+
+import net.runelite.api.MenuAction;
+import net.runelite.api.events.BeforeRender;
+import net.runelite.api.events.CanvasSizeChanged;
+import net.runelite.api.events.ClientTick;
+import net.runelite.api.events.GameTick;
+import net.runelite.api.events.ItemContainerChanged;
+import net.runelite.api.events.MenuOptionClicked;
+import net.runelite.api.events.VarbitChanged;
+import net.runelite.api.gameval.InterfaceID;
+import net.runelite.api.gameval.InventoryID;
+import net.runelite.api.gameval.VarPlayerID;
+import net.runelite.client.events.ConfigChanged;
+import org.junit.Test;
+
+import java.awt.Rectangle;
+
+import static org.junit.Assert.*;
+
+public class SpecBarStateTest
+{
+    private final SpecBarStubs.ClientState clientState = new SpecBarStubs.ClientState();
+
+    @Test
+    public void testMovingWithinATargetPublishesNothingNew()
+    {
+        SpecBarPlugin plugin = plugin(new SpecBarConfig() {});
+        assertSame("Idle border is off by default", SpecBarState.EMPTY, plugin.getState());
+
+        Rectangle bar = SpecBarStubs.SPEC_BAR_BOUNDS;
+        plugin.onMouseMoved(bar.x + 1, bar.y + 1);
+        SpecBarState hover = plugin.getState();
+        assertEquals(SpecBarSpriteCache.STATE_HOVER, hover.getRenderState(SpecBarHitboxes.SPEC_BAR));
+        assertEquals("Highlighted exactly over the clickbox", bar, hover.getBounds(SpecBarHitboxes.SPEC_BAR));
+
+        plugin.onMouseMoved(bar.x + 2, bar.y + 2);
+        assertSame(hover, plugin.getState());
+
+        plugin.onMouseMoved(-1, -1);
+        assertSame(SpecBarState.EMPTY, plugin.getState());
+    }
+
+    @Test
+    public void testOnlyTheClickedSpecButtonShowsTheClick()
+    {
+        SpecBarPlugin plugin = plugin(new SpecBarConfig() {});
+        Rectangle orb = SpecBarStubs.SPEC_ORB_BOUNDS;
+        plugin.onMouseMoved(orb.x + 5, orb.y + 5);
+        assertEquals(SpecBarSpriteCache.STATE_HOVER, plugin.getState().getRenderState(SpecBarHitboxes.SPEC_ORB));
+        assertEquals(SpecBarState.NONE, plugin.getState().getRenderState(SpecBarHitboxes.SPEC_BAR));
+
+        click(plugin, InterfaceID.Orbs.SPECBUTTON);
+        assertEquals(SpecBarSpriteCache.STATE_CLICK, plugin.getState().getRenderState(SpecBarHitboxes.SPEC_ORB));
+        assertEquals(SpecBarState.NONE, plugin.getState().getRenderState(SpecBarHitboxes.SPEC_BAR));
+    }
+
+    @Test
+    public void testOtherOrbsAreOptIn()
+    {
+        Rectangle prayer = SpecBarStubs.PRAYER_ORB_BOUNDS;
+        SpecBarPlugin plugin = plugin(new SpecBarConfig() {});
+        plugin.onMouseMoved(prayer.x + 5, prayer.y + 5);
+        assertSame(SpecBarState.EMPTY, plugin.getState());
+
+        plugin = plugin(new SpecBarConfig()
+        {
+            @Override
+            public boolean highlightOtherOrbs()
+            {
+                return true;
+            }
+        });
+        plugin.onMouseMoved(prayer.x + 5, prayer.y + 5);
+        assertEquals(SpecBarSpriteCache.STATE_HOVER, plugin.getState().getRenderState(SpecBarHitboxes.PRAYER_ORB));
+        assertEquals("Hovering another orb is not a spec hover", ClickStateMachine.IDLE, plugin.getClickState());
+
+        // Quick prayer clicks show until the next game tick
+        click(plugin, InterfaceID.Orbs.PRAYERBUTTON);
+        assertEquals(SpecBarSpriteCache.STATE_CLICK, plugin.getState().getRenderState(SpecBarHitboxes.PRAYER_ORB));
+        clientState.tickCount++;
+        plugin.onGameTick(new GameTick());
+        assertEquals(SpecBarSpriteCache.STATE_HOVER, plugin.getState().getRenderState(SpecBarHitboxes.PRAYER_ORB));
+    }
+
+    @Test
+    public void testClickboxIsClippedByParents()
+    {
+        // A parent layer cutting off the right half of the bar, e.g. a resized side panel
+        Rectangle bar = SpecBarStubs.SPEC_BAR_BOUNDS;
+        clientState.specBarParentBounds = new Rectangle(0, 0, bar.x + bar.width / 2, 1000);
+        SpecBarPlugin plugin = plugin(new SpecBarConfig() {});
+
+        plugin.onMouseMoved(bar.x + bar.width - 5, bar.y + 5);
+        assertEquals("Clipped off, so not clickable", ClickStateMachine.IDLE, plugin.getClickState());
+
+        plugin.onMouseMoved(bar.x + 5, bar.y + 5);
+        assertEquals(ClickStateMachine.HOVER, plugin.getClickState());
+        assertEquals(new Rectangle(bar.x, bar.y, bar.width / 2, bar.height), plugin.getState().getBounds(SpecBarHitboxes.SPEC_BAR));
+    }
+
+    @Test
+    public void testWeaponSwapRereadsWhetherTheSpecBarIsShown()
+    {
+        SpecBarPlugin plugin = plugin(new SpecBarConfig() {});
+        Rectangle bar = SpecBarStubs.SPEC_BAR_BOUNDS;
+
+        // A weapon without a special attack: the combat tab hides the bar, with no interface event
+        clientState.specBarHidden = true;
+        plugin.onItemContainerChanged(new ItemContainerChanged(InventoryID.WORN, SpecBarStubs.equipment(clientState)));
+        plugin.onClientTick(new ClientTick());
+        plugin.onMouseMoved(bar.x + 1, bar.y + 1);
+        assertEquals(SpecBarState.NONE, plugin.getState().getRenderState(SpecBarHitboxes.SPEC_BAR));
+
+        clientState.specBarHidden = false;
+        plugin.onItemContainerChanged(new ItemContainerChanged(InventoryID.WORN, SpecBarStubs.equipment(clientState)));
+        plugin.onClientTick(new ClientTick());
+        plugin.onMouseMoved(bar.x + 2, bar.y + 2);
+        assertEquals(SpecBarSpriteCache.STATE_HOVER, plugin.getState().getRenderState(SpecBarHitboxes.SPEC_BAR));
+    }
+
+    @Test
+    public void testHitboxGridLookup()
+    {
+        Rectangle[] bounds = new Rectangle[SpecBarHitboxes.TARGET_COUNT];
+        bounds[SpecBarHitboxes.SPEC_BAR] = SpecBarStubs.SPEC_BAR_BOUNDS;
+        bounds[SpecBarHitboxes.RUN_ORB] = SpecBarStubs.RUN_ORB_BOUNDS;
+        SpecBarHitboxes hitboxes = SpecBarHitboxes.of(bounds);
+
+        Rectangle bar = SpecBarStubs.SPEC_BAR_BOUNDS;
+        assertEquals(SpecBarHitboxes.SPEC_BAR, hitboxes.targetAt(bar.x, bar.y));
+        assertEquals(SpecBarHitboxes.SPEC_BAR, hitboxes.targetAt(bar.x + bar.width - 1, bar.y + bar.height - 1));
+        assertEquals(SpecBarHitboxes.NONE, hitboxes.targetAt(bar.x + bar.width, bar.y));
+        assertEquals(SpecBarHitboxes.RUN_ORB, hitboxes.targetAt(SpecBarStubs.RUN_ORB_BOUNDS.x + 1, SpecBarStubs.RUN_ORB_BOUNDS.y + 1));
+        assertEquals("Disabled targets are never hit", SpecBarHitboxes.NONE,
+            hitboxes.targetAt(SpecBarStubs.SPEC_ORB_BOUNDS.x + 1, SpecBarStubs.SPEC_ORB_BOUNDS.y + 1));
+        assertEquals(SpecBarHitboxes.NONE, hitboxes.targetAt(-1, -1));
+        assertEquals(SpecBarHitboxes.NONE, hitboxes.targetAt(5000, 5000));
+        assertEquals(SpecBarHitboxes.NONE, SpecBarHitboxes.EMPTY.targetAt(bar.x, bar.y));
+    }
+
+    @Test
+    public void testInstantClickIsConfirmedOrRolledBack()
+    {
+        SpecBarPlugin plugin = plugin(new SpecBarConfig()
+        {
+            @Override
+            public boolean instantClickFeedback()
+            {
+                return true;
+            }
+        });
+        Rectangle bar = SpecBarStubs.SPEC_BAR_BOUNDS;
+        plugin.onMouseMoved(bar.x + 5, bar.y + 5);
+
+        plugin.onMousePressed(bar.x + 5, bar.y + 5);
+        assertEquals("Shown on the press", SpecBarSpriteCache.STATE_CLICK, plugin.getState().getRenderState(SpecBarHitboxes.SPEC_BAR));
+        assertEquals("Not a click until the menu action", ClickStateMachine.HOVER, plugin.getClickState());
+        click(plugin, InterfaceID.CombatInterface.SP_ATTACKBAR);
+        assertEquals(SpecBarSpriteCache.STATE_CLICK, plugin.getState().getRenderState(SpecBarHitboxes.SPEC_BAR));
+        assertEquals(ClickStateMachine.PENDING, plugin.getClickState());
+
+        // Toggling the spec off is never shown early
+        plugin.onMousePressed(bar.x + 5, bar.y + 5);
+        click(plugin, InterfaceID.CombatInterface.SP_ATTACKBAR);
+        assertEquals(SpecBarSpriteCache.STATE_HOVER, plugin.getState().getRenderState(SpecBarHitboxes.SPEC_BAR));
+
+        // The press went to some other menu entry
+        plugin.onMousePressed(bar.x + 5, bar.y + 5);
+        plugin.onMenuOptionClicked(new MenuOptionClicked(SpecBarStubs.menuEntry("Walk here", "", MenuAction.WALK, 0)));
+        assertEquals(SpecBarSpriteCache.STATE_HOVER, plugin.getState().getRenderState(SpecBarHitboxes.SPEC_BAR));
+
+        // No menu action at all
+        plugin.onMousePressed(bar.x + 5, bar.y + 5);
+        clientState.gameCycle += 10;
+        plugin.onClientTick(new ClientTick());
+        assertEquals(SpecBarSpriteCache.STATE_HOVER, plugin.getState().getRenderState(SpecBarHitboxes.SPEC_BAR));
+    }
+
+    @Test
+    public void testSpecBarTextIsBlankedOnlyAfterTheGameRewritesIt()
+    {
+        boolean[] hideText = {true};
+        SpecBarPlugin plugin = plugin(new SpecBarConfig()
+        {
+            @Override
+            public boolean hideSpecBarText()
+            {
+                return hideText[0];
+            }
+        });
+
+        plugin.onBeforeRender(new BeforeRender());
+        assertEquals("Blanked the frame the combat tab loads", "", clientState.specBarText);
+
+        // Nothing touched the widget, so later frames leave it alone
+        clientState.specBarText = "Set by something else";
+        plugin.onBeforeRender(new BeforeRender());
+        assertEquals("Set by something else", clientState.specBarText);
+
+        clientState.specBarText = "Special Attack: 90%";
+        VarbitChanged energy = new VarbitChanged();
+        energy.setVarpId(VarPlayerID.SA_ENERGY);
+        energy.setVarbitId(-1);
+        energy.setValue(900);
+        plugin.onVarbitChanged(energy);
+        plugin.onBeforeRender(new BeforeRender());
+        assertEquals("", clientState.specBarText);
+
+        clientState.specBarText = "Special Attack: 90%";
+        plugin.onItemContainerChanged(new ItemContainerChanged(InventoryID.WORN, SpecBarStubs.equipment(clientState)));
+        plugin.onBeforeRender(new BeforeRender());
+        assertEquals("Blanked again after a weapon swap", "", clientState.specBarText);
+
+        hideText[0] = false;
+        ConfigChanged toggled = new ConfigChanged();
+        toggled.setGroup("specbar");
+        toggled.setKey("hideSpecBarText");
+        plugin.onConfigChanged(toggled);
+        assertEquals("Turning the option off puts the text back", "Special Attack: 90%", clientState.specBarText);
+    }
+
+    @Test
+    public void testUnaffordableSpecClickIsShownRightAway()
+    {
+        clientState.weapon = 13652; // Dragon claws, 50%
+        clientState.varps[VarPlayerID.SA_ENERGY] = 400;
+        SpecBarPlugin plugin = plugin(new SpecBarConfig() {});
+        plugin.onGameTick(new GameTick());
+        Rectangle bar = SpecBarStubs.SPEC_BAR_BOUNDS;
+        plugin.onMouseMoved(bar.x + 5, bar.y + 5);
+
+        click(plugin, InterfaceID.CombatInterface.SP_ATTACKBAR);
+        assertEquals("No round trip to the server", ClickStateMachine.FAILED, plugin.getClickState());
+        assertEquals(SpecBarSpriteCache.STATE_INSUFFICIENT, plugin.getState().getRenderState(SpecBarHitboxes.SPEC_BAR));
+
+        // Swapping to a dragon dagger makes 40% enough
+        clientState.weapon = 1215;
+        plugin.onItemContainerChanged(new ItemContainerChanged(InventoryID.WORN, SpecBarStubs.equipment(clientState)));
+        clientState.tickCount++;
+        plugin.onGameTick(new GameTick());
+        click(plugin, InterfaceID.CombatInterface.SP_ATTACKBAR);
+        assertEquals(ClickStateMachine.PENDING, plugin.getClickState());
+        assertEquals(SpecBarSpriteCache.STATE_CLICK, plugin.getState().getRenderState(SpecBarHitboxes.SPEC_BAR));
+    }
+
+    @Test
+    public void testArmedSpecStaysShownPastTheDetectionWindow()
+    {
+        clientState.varps[VarPlayerID.SA_ENERGY] = 1000;
+        SpecBarPlugin plugin = plugin(new SpecBarConfig() {});
+        plugin.onGameTick(new GameTick());
+        click(plugin, InterfaceID.CombatInterface.SP_ATTACKBAR);
+        varp(plugin, VarPlayerID.SA_ATTACK, 1);
+
+        // Out of range of the target: the spec stays armed until the next hit
+        for (int i = 0; i < ClickStateMachine.DETECTION_WINDOW_TICKS * 2; i++)
+        {
+            clientState.tickCount++;
+            plugin.onGameTick(new GameTick());
+        }
+        assertEquals(ClickStateMachine.PENDING, plugin.getClickState());
+
+        varp(plugin, VarPlayerID.SA_ENERGY, 500);
+        varp(plugin, VarPlayerID.SA_ATTACK, 0);
+        assertEquals(ClickStateMachine.CONFIRMED, plugin.getClickState());
+    }
+
+    @Test
+    public void testTurningTheSpecOffCancelsTheClick()
+    {
+        clientState.varps[VarPlayerID.SA_ENERGY] = 1000;
+        SpecBarPlugin plugin = plugin(new SpecBarConfig() {});
+        plugin.onGameTick(new GameTick());
+        click(plugin, InterfaceID.CombatInterface.SP_ATTACKBAR);
+        varp(plugin, VarPlayerID.SA_ATTACK, 1);
+
+        // Turned off some other way, e.g. by swapping weapons: no energy drop or spec animation follows
+        varp(plugin, VarPlayerID.SA_ATTACK, 0);
+        assertEquals("Undecided until the tick is over", ClickStateMachine.PENDING, plugin.getClickState());
+        clientState.tickCount++;
+        plugin.onGameTick(new GameTick());
+        assertEquals(ClickStateMachine.IDLE, plugin.getClickState());
+    }
+
+    @Test
+    public void testUnarmedClickStillTimesOut()
+    {
+        SpecBarPlugin plugin = plugin(new SpecBarConfig() {});
+        plugin.onGameTick(new GameTick());
+        click(plugin, InterfaceID.CombatInterface.SP_ATTACKBAR);
+
+        for (int i = 0; i < ClickStateMachine.DETECTION_WINDOW_TICKS; i++)
+        {
+            clientState.tickCount++;
+            plugin.onGameTick(new GameTick());
+        }
+        assertEquals(ClickStateMachine.EXPIRED, plugin.getClickState());
+    }
+
+    private SpecBarPlugin plugin(SpecBarConfig config)
+    {
+        SpecBarPlugin plugin = SpecBarStubs.plugin(SpecBarStubs.client(clientState, SpecBarStubs.player(clientState)), config);
+        plugin.onCanvasSizeChanged(new CanvasSizeChanged());
+        plugin.onClientTick(new ClientTick());
+        return plugin;
+    }
+
+    private void varp(SpecBarPlugin plugin, int varpId, int value)
+    {
+        clientState.varps[varpId] = value;
+        VarbitChanged event = new VarbitChanged();
+        event.setVarpId(varpId);
+        event.setVarbitId(-1);
+        event.setValue(value);
+        plugin.onVarbitChanged(event);
+    }
+
+    private static void click(SpecBarPlugin plugin, int widgetId)
+    {
+        plugin.onMenuOptionClicked(new MenuOptionClicked(SpecBarStubs.menuEntry("", "", MenuAction.CC_OP, widgetId)));
+    }
+}
@@ -0,0 +1,356 @@
+package com.specbar;
+
+import net.runelite.api.Client;
+import net.runelite.api.EquipmentInventorySlot;
+import net.runelite.api.Item;
+import net.runelite.api.ItemContainer;
+import net.runelite.api.MenuAction;
+import net.runelite.api.MenuEntry;
+import net.runelite.api.Player;
+import net.runelite.api.gameval.InterfaceID;
+import net.runelite.api.gameval.InventoryID;
+import net.runelite.api.widgets.Widget;
+import net.runelite.client.callback.ClientThread;
+
+import java.awt.Rectangle;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.util.function.Supplier;
+
+/**
+ * Headless stand-ins for the RuneLite API, shared by the unit tests and the JMH benchmarks.
+ * Stubs are dynamic proxies: only the methods the plugin actually calls are answered,
+ * everything else returns the type's default value.
+ */
+final class SpecBarStubs
+{
+    // Where the stub combat tab places the spec bar, in canvas coordinates (fixed mode layout)
+    static final Rectangle SPEC_BAR_BOUNDS = new Rectangle(563, 412, 148, 26);
+    static final Rectangle PRAYER_ORB_BOUNDS = new Rectangle(523, 85, 28, 28);
+    static final Rectangle RUN_ORB_BOUNDS = new Rectangle(533, 118, 28, 28);
+    static final Rectangle SPEC_ORB_BOUNDS = new Rectangle(556, 150, 28, 28);
+
+    private SpecBarStubs()
+    {
+    }
+
+    @FunctionalInterface
+    interface Answer
+    {
+        /**
+         * Returns the value for the call, or {@link #DEFAULT} to fall back to the return type's default.
+         */
+        Object answer(String method, Object[] args);
+    }
+
+    static final Object DEFAULT = new Object();
+
+    static <T> T stub(Class<T> type, Answer answer)
+    {
+        Object proxy = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (self, method, args) ->
+        {
+            switch (method.getName())
+            {
+                case "equals": return self == args[0];
+                case "hashCode": return System.identityHashCode(self);
+                case "toString": return type.getSimpleName() + "Stub";
+            }
+
+            Object result = answer.answer(method.getName(), args);
+            return result != DEFAULT ? result : defaultValue(method.getReturnType());
+        });
+        return type.cast(proxy);
+    }
+
+    private static Object defaultValue(Class<?> type)
+    {
+        if (!type.isPrimitive() || type == void.class)
+        {
+            return null;
+        }
+        if (type == boolean.class)
+        {
+            return false;
+        }
+        if (type == long.class)
+        {
+            return 0L;
+        }
+        if (type == double.class)
+        {
+            return 0d;
+        }
+        if (type == float.class)
+        {
+            return 0f;
+        }
+        if (type == char.class)
+        {
+            return (char) 0;
+        }
+        if (type == byte.class)
+        {
+            return (byte) 0;
+        }
+        if (type == short.class)
+        {
+            return (short) 0;
+        }
+        return 0;
+    }
+
+    /**
+     * Mutable game state behind a stub {@link Client}. Tests and benchmarks change these fields
+     * between events instead of rebuilding the stubs.
+     */
+    static final class ClientState
+    {
+        final int[] varps = new int[4096];
+        int tickCount = 0;
+        int gameCycle = 0;
+        int animation = -1;
+        int graphic = -1;
+        // null while the combat tab is not shown
+        Rectangle specBarBounds = new Rectangle(SPEC_BAR_BOUNDS);
+        // Hidden by the combat tab while the weapon has no special attack
+        boolean specBarHidden = false;
+        // The spec bar's parent layer, which clips its clickbox; null for none
+        Rectangle specBarParentBounds = null;
+        // Minimap orbs; null while hidden
+        Rectangle specOrbBounds = new Rectangle(SPEC_ORB_BOUNDS);
+        Rectangle prayerOrbBounds = new Rectangle(PRAYER_ORB_BOUNDS);
+        Rectangle runOrbBounds = new Rectangle(RUN_ORB_BOUNDS);
+        // What the game last wrote into the spec bar, or the plugin blanked it to
+        String specBarText = "Special Attack: 100%";
+        // Item IDs in the weapon and ring slots; -1 for none
+        int weapon = -1;
+        int ring = -1;
+    }
+
+    /**
+     * The equipment container of {@code state}, holding just its weapon and ring.
+     */
+    static ItemContainer equipment(ClientState state)
+    {
+        return stub(ItemContainer.class, (method, args) ->
+        {
+            switch (method)
+            {
+                case "getId": return InventoryID.WORN;
+                case "getItem":
+                {
+                    int slot = (Integer) args[0];
+                    int id = slot == EquipmentInventorySlot.WEAPON.getSlotIdx() ? state.weapon
+                        : slot == EquipmentInventorySlot.RING.getSlotIdx() ? state.ring : -1;
+                    return id != -1 ? new Item(id, 1) : null;
+                }
+                default: return DEFAULT;
+            }
+        });
+    }
+
+    /**
+     * A widget whose bounds are read on every call; hidden while they are null.
+     */
+    static Widget widget(Supplier<Rectangle> boundsSupplier)
+    {
+        return widget(boundsSupplier, null);
+    }
+
+    /**
+     * A widget inside {@code parent}, which is only reported while its bounds are not null.
+     */
+    static Widget widget(Supplier<Rectangle> boundsSupplier, Supplier<Rectangle> parentBoundsSupplier)
+    {
+        return widget(boundsSupplier, parentBoundsSupplier, null);
+    }
+
+    /**
+     * A widget whose text is read from and written to {@code state}; text is always empty without one.
+     */
+    static Widget widget(Supplier<Rectangle> boundsSupplier, Supplier<Rectangle> parentBoundsSupplier,
+                         ClientState state)
+    {
+        Widget parent = parentBoundsSupplier != null ? widget(parentBoundsSupplier) : null;
+        return stub(Widget.class, (method, args) ->
+        {
+            Rectangle bounds = boundsSupplier.get();
+            switch (method)
+            {
+                case "getParent": return parent != null && parentBoundsSupplier.get() != null ? parent : null;
+                case "isHidden": return bounds == null || state != null && state.specBarHidden;
+                case "getBounds": return bounds != null ? new Rectangle(bounds) : null;
+                case "getText": return state != null ? state.specBarText : "";
+                case "setText":
+                    if (state != null)
+                    {
+                        state.specBarText = (String) args[0];
+                    }
+                    return null;
+                default: return DEFAULT;
+            }
+        });
+    }
+
+    static Player player(ClientState state)
+    {
+        return stub(Player.class, (method, args) ->
+        {
+            switch (method)
+            {
+                case "getAnimation": return state.animation;
+                case "getGraphic": return state.graphic;
+                default: return DEFAULT;
+            }
+        });
+    }
+
+    /**
+     * A logged in client showing the combat tab, backed by {@code state}.
+     */
+    static Client client(ClientState state, Player localPlayer)
+    {
+        Widget specBar = widget(() -> state.specBarBounds, () -> state.specBarParentBounds, state);
+        Widget specOrb = widget(() -> state.specOrbBounds);
+        Widget prayerOrb = widget(() -> state.prayerOrbBounds);
+        Widget runOrb = widget(() -> state.runOrbBounds);
+        return stub(Client.class, (method, args) ->
+        {
+            switch (method)
+            {
+                case "getLocalPlayer":
+                    return localPlayer;
+                case "getTickCount":
+                    return state.tickCount;
+                case "getGameCycle":
+                    return state.gameCycle;
+                case "getVarpValue":
+                    return state.varps[(Integer) args[0]];
+                case "getItemContainer":
+                    return (Integer) args[0] == InventoryID.WORN ? equipment(state) : null;
+                case "getWidget":
+                {
+                    int id = (Integer) args[0];
+                    if (id == InterfaceID.CombatInterface.SP_ATTACKBAR)
+                    {
+                        return specBar;
+                    }
+                    if (id == InterfaceID.Orbs.SPECBUTTON)
+                    {
+                        return specOrb;
+                    }
+                    if (id == InterfaceID.Orbs.PRAYERBUTTON)
+                    {
+                        return prayerOrb;
+                    }
+                    if (id == InterfaceID.Orbs.RUNBUTTON)
+                    {
+                        return runOrb;
+                    }
+                    return null;
+                }
+                default:
+                    return DEFAULT;
+            }
+        });
+    }
+
+    static MenuEntry menuEntry(String option, String target, MenuAction action, int param1)
+    {
+        return stub(MenuEntry.class, (method, args) ->
+        {
+            switch (method)
+            {
+                case "getOption": return option;
+                case "getTarget": return target;
+                case "getType": return action;
+                case "getParam1": return param1;
+                default: return DEFAULT;
+            }
+        });
+    }
+
+    /**
+     * Sets a private (usually {@code @Inject}) field, standing in for Guice.
+     */
+    static void inject(Object target, String fieldName, Object value)
+    {
+        try
+        {
+            Field field = target.getClass().getDeclaredField(fieldName);
+            field.setAccessible(true);
+            field.set(target, value);
+        }
+        catch (ReflectiveOperationException e)
+        {
+            throw new IllegalStateException("Unable to inject " + fieldName, e);
+        }
+    }
+
+    static Object extract(Object target, String fieldName)
+    {
+        try
+        {
+            Field field = target.getClass().getDeclaredField(fieldName);
+            field.setAccessible(true);
+            return field.get(target);
+        }
+        catch (ReflectiveOperationException e)
+        {
+            throw new IllegalStateException("Unable to read " + fieldName, e);
+        }
+    }
+
+    static <T> T construct(Class<T> type, Class<?>[] parameterTypes, Object... args)
+    {
+        try
+        {
+            Constructor<T> constructor = type.getDeclaredConstructor(parameterTypes);
+            constructor.setAccessible(true);
+            return constructor.newInstance(args);
+        }
+        catch (ReflectiveOperationException e)
+        {
+            throw new IllegalStateException("Unable to construct " + type.getSimpleName(), e);
+        }
+    }
+
+    /**
+     * A plugin wired to the given client and config, without going through startUp
+     * (which needs the overlay and mouse managers).
+     */
+    static SpecBarPlugin plugin(Client client, SpecBarConfig config)
+    {
+        return plugin(client, config, SpecBarClock.SYSTEM);
+    }
+
+    static SpecBarPlugin plugin(Client client, SpecBarConfig config, SpecBarClock clock)
+    {
+        SpecBarPlugin plugin = new SpecBarPlugin();
+        inject(plugin, "client", client);
+        inject(plugin, "config", config);
+        inject(plugin, "clock", clock);
+        inject(plugin, "layout", new SpecBarLayout(client));
+        inject(plugin, "latency", new SpecBarLatency(clock));
+        inject(plugin, "regen", new SpecBarRegenTracker());
+        inject(plugin, "budget", new SpecBarFrameBudget(clock));
+        inject(plugin, "flightRecorder", new SpecBarFlightRecorder(clock));
+        inject(plugin, "clientThread", new ClientThread()
+        {
+            // Tests and benchmarks already run on the client thread
+            @Override
+            public void invokeLater(Runnable runnable)
+            {
+                runnable.run();
+            }
+        });
+        plugin.rebuildPalette();
+        return plugin;
+    }
+
+    static SpecBarOverlay overlay(SpecBarPlugin plugin, Client client)
+    {
+        return construct(SpecBarOverlay.class, new Class<?>[]{SpecBarPlugin.class, Client.class}, plugin, client);
+    }
+}
@@ -0,0 +1,67 @@
+package com.specbar;
+
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.Assert.*;
+
+public class SpecCostTableTest
+{
+    @Test
+    public void testBundledTableCoversCommonSpecWeapons()
+    {
+        SpecCostTable table = SpecCostTable.load();
+
+        assertEquals("Dragon dagger", 250, table.getCost(1215));
+        assertEquals("Dragon dagger(p++)", 250, table.getCost(5698));
+        assertEquals("Dragon claws", 500, table.getCost(13652));
+        assertEquals("Armadyl godsword", 500, table.getCost(11802));
+        assertEquals("Dragon battleaxe", 1000, table.getCost(1377));
+
+        assertEquals("Not a spec weapon", SpecCostTable.UNKNOWN, table.getCost(1333));
+        assertEquals(SpecCostTable.UNKNOWN, table.getCost(-1));
+    }
+
+    @Test
+    public void testCollidingIdsAreAllFound() throws IOException
+    {
+        StringBuilder text = new StringBuilder();
+        for (int id = 0; id < 1000; id++)
+        {
+            text.append(id * 64).append(' ').append(id % 100 + 1).append('\n');
+        }
+        SpecCostTable table = parse(text.toString());
+
+        for (int id = 0; id < 1000; id++)
+        {
+            assertEquals(String.valueOf(id * 64), (id % 100 + 1) * 10, table.getCost(id * 64));
+            assertEquals(SpecCostTable.UNKNOWN, table.getCost(id * 64 + 1));
+        }
+    }
+
+    @Test
+    public void testEmptyTableKnowsNothing() throws IOException
+    {
+        assertEquals(SpecCostTable.UNKNOWN, parse("# nothing yet\n").getCost(1215));
+    }
+
+    @Test(expected = IOException.class)
+    public void testParseRejectsDuplicateIds() throws IOException
+    {
+        parse("1215 25\n1215 50\n");
+    }
+
+    @Test(expected = IOException.class)
+    public void testParseRejectsCostsOverAHundredPercent() throws IOException
+    {
+        parse("1215 250\n");
+    }
+
+    private static SpecCostTable parse(String text) throws IOException
+    {
+        return SpecCostTable.parse(new BufferedReader(new StringReader(text)));
+    }
+}
@@ -0,0 +1,69 @@
+package com.specbar;
+
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.Assert.*;
+
+public class SpecIdTableTest
+{
+    @Test
+    public void testBundledTableCoversCombatSpecs()
+    {
+        SpecIdTable table = SpecIdTable.load();
+
+        assertTrue("Dragon dagger animation", table.isSpecAnimation(1062));
+        assertTrue("Dragon dagger graphic", table.isSpecGraphic(252));
+        assertTrue("Dragon claws animation", table.isSpecAnimation(7514));
+        assertTrue("Voidwaker animation", table.isSpecAnimation(11275));
+        assertTrue("Dragon axe boost animation", table.isSpecAnimation(2876));
+
+        // Animation and graphic ids are separate namespaces
+        assertFalse(table.isSpecGraphic(1062));
+    }
+
+    @Test
+    public void testRegularAttackAnimationsAreNotSpecs()
+    {
+        SpecIdTable table = SpecIdTable.load();
+
+        assertFalse("Abyssal whip attack", table.isSpecAnimation(1658));
+        assertFalse("Toxic blowpipe attack", table.isSpecAnimation(5061));
+        assertFalse("Dark bow attack", table.isSpecAnimation(426));
+        assertTrue("Abyssal whip spec graphic", table.isSpecGraphic(341));
+    }
+
+    @Test
+    public void testOutOfRangeIdsAreRejected()
+    {
+        SpecIdTable table = SpecIdTable.load();
+
+        assertFalse(table.isSpecAnimation(-1));
+        assertFalse(table.isSpecGraphic(-1));
+        assertFalse(table.isSpecAnimation(Integer.MAX_VALUE));
+    }
+
+    @Test
+    public void testParseIgnoresCommentsAndBlankLines() throws IOException
+    {
+        SpecIdTable table = parse("# header\n\nanim 5 # trailing comment\n  graphic 70  \n");
+
+        assertTrue(table.isSpecAnimation(5));
+        assertTrue(table.isSpecGraphic(70));
+        assertFalse(table.isSpecAnimation(70));
+    }
+
+    @Test(expected = IOException.class)
+    public void testParseRejectsUnknownEntryType() throws IOException
+    {
+        parse("sound 12\n");
+    }
+
+    private static SpecIdTable parse(String text) throws IOException
+    {
+        return SpecIdTable.parse(new BufferedReader(new StringReader(text)));
+    }
+}